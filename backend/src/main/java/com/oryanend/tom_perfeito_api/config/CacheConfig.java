@@ -0,0 +1,50 @@
+package com.oryanend.tom_perfeito_api.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  public static final String MUSICS = "musics";
+  public static final String TRANSPOSITIONS = "transpositions";
+
+  @Value("${cache.musics.maximum-size}")
+  private long musicsMaximumSize;
+
+  @Value("${cache.musics.ttl}")
+  private Duration musicsTtl;
+
+  @Value("${cache.transpositions.maximum-size}")
+  private long transpositionsMaximumSize;
+
+  @Value("${cache.transpositions.ttl}")
+  private Duration transpositionsTtl;
+
+  @Bean
+  public CacheManager cacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.registerCustomCache(
+        MUSICS,
+        Caffeine.newBuilder()
+            .maximumSize(musicsMaximumSize)
+            .expireAfterWrite(musicsTtl)
+            .recordStats()
+            .build());
+    cacheManager.registerCustomCache(
+        TRANSPOSITIONS,
+        Caffeine.newBuilder()
+            .maximumSize(transpositionsMaximumSize)
+            .expireAfterWrite(transpositionsTtl)
+            .recordStats()
+            .build());
+    return cacheManager;
+  }
+}
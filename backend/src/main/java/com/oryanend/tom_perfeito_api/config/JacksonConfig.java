@@ -0,0 +1,16 @@
+package com.oryanend.tom_perfeito_api.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+  // DTOs carrying the fieldset filter are written in full unless a response sets its own filter
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer fieldSelectionFilter() {
+    return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+  }
+}
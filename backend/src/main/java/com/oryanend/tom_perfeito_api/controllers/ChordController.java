@@ -1,13 +1,17 @@
 package com.oryanend.tom_perfeito_api.controllers;
 
 import com.oryanend.tom_perfeito_api.dto.ChordDTO;
+import com.oryanend.tom_perfeito_api.dto.ChordSymbolDTO;
 import com.oryanend.tom_perfeito_api.services.ChordService;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordMatch;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import java.net.URI;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -26,8 +30,22 @@ public class ChordController {
   @GetMapping("/search")
   public ResponseEntity<List<ChordDTO>> searchChords(
       @RequestParam(value = "name", required = false) String name,
-      @RequestParam(value = "notes", required = false) List<String> notes) {
-    List<ChordDTO> list = service.searchChords(name, notes);
+      @RequestParam(value = "notes", required = false) List<String> notes,
+      @RequestParam(value = "match", defaultValue = "SUPERSET") ChordMatch match) {
+    List<ChordDTO> list = service.searchChords(name, notes, match);
+    return ResponseEntity.ok(list);
+  }
+
+  @GetMapping("/parse")
+  public ResponseEntity<ChordSymbolDTO> parse(@RequestParam(value = "symbol") String symbol) {
+    ChordSymbolDTO dto = service.parseSymbol(symbol);
+    return ResponseEntity.ok(dto);
+  }
+
+  @GetMapping("/identify")
+  public ResponseEntity<List<ChordSymbolDTO>> identify(
+      @RequestParam(value = "notes") List<String> notes) {
+    List<ChordSymbolDTO> list = service.identify(notes);
     return ResponseEntity.ok(list);
   }
 
@@ -41,4 +59,11 @@ public class ChordController {
             .toUri();
     return ResponseEntity.created(uri).body(dto);
   }
+
+  @PostMapping("/bulk")
+  public ResponseEntity<List<ChordDTO>> insertAll(
+      @RequestBody @NotEmpty List<@Valid ChordDTO> dtos) {
+    List<ChordDTO> list = service.insertAll(dtos);
+    return ResponseEntity.status(HttpStatus.CREATED).body(list);
+  }
 }
@@ -1,16 +1,23 @@
 package com.oryanend.tom_perfeito_api.controllers;
 
 import com.oryanend.tom_perfeito_api.dto.CommentDTO;
+import com.oryanend.tom_perfeito_api.dto.CursorPageDTO;
 import com.oryanend.tom_perfeito_api.services.CommentService;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
 import jakarta.validation.Valid;
 import java.net.URI;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
@@ -20,17 +27,53 @@ public class CommentController {
   @Autowired private CommentService service;
 
   @GetMapping
-  public ResponseEntity<Page<CommentDTO>> findAll(Pageable pageable) {
-    Page<CommentDTO> list = service.findAllPaged(pageable);
+  public ResponseEntity<Page<CommentDTO>> findAll(
+      @PathVariable UUID musicId,
+      @PageableDefault(
+              sort = {"createdAt", "id"},
+              direction = Sort.Direction.DESC)
+          Pageable pageable) {
+    Page<CommentDTO> list = service.findAllPaged(musicId, pageable);
     return ResponseEntity.ok(list);
   }
 
+  @GetMapping(value = "/cursor")
+  public ResponseEntity<CursorPageDTO<CommentDTO>> findAllByCursor(
+      @PathVariable UUID musicId,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size,
+      @RequestParam(value = "fields", required = false) List<String> fields,
+      @RequestParam(value = "expand", required = false) List<String> expand) {
+    CursorPageDTO<CommentDTO> page =
+        service.findAllByCursor(musicId, cursor, size, FieldSelection.of(fields, expand));
+    return ResponseEntity.ok(page);
+  }
+
+  // New, edited and deleted comments of the music as `created`, `updated` and `deleted` events
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@PathVariable UUID musicId) {
+    return service.subscribe(musicId);
+  }
+
   @GetMapping(value = "/{id}")
-  public ResponseEntity<CommentDTO> findById(@PathVariable Long id) {
-    CommentDTO dto = service.findById(id);
+  public ResponseEntity<CommentDTO> findById(
+      @PathVariable Long id,
+      @RequestParam(value = "fields", required = false) List<String> fields,
+      @RequestParam(value = "expand", required = false) List<String> expand) {
+    CommentDTO dto = service.findById(id, FieldSelection.of(fields, expand));
     return ResponseEntity.ok(dto);
   }
 
+  @GetMapping(value = "/{id}/replies")
+  public ResponseEntity<CursorPageDTO<CommentDTO>> findReplies(
+      @PathVariable UUID musicId,
+      @PathVariable Long id,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size) {
+    CursorPageDTO<CommentDTO> page = service.findRepliesByCursor(musicId, id, cursor, size);
+    return ResponseEntity.ok(page);
+  }
+
   @PreAuthorize("hasAnyRole('ROLE_CLIENT','ROLE_ADMIN')")
   @PostMapping
   public ResponseEntity<CommentDTO> insert(
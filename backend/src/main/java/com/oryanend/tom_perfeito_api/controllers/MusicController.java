@@ -1,11 +1,22 @@
 package com.oryanend.tom_perfeito_api.controllers;
 
+import com.oryanend.tom_perfeito_api.dto.CursorPageDTO;
+import com.oryanend.tom_perfeito_api.dto.ImportReportDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicMinDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicPatchDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicVersion;
+import com.oryanend.tom_perfeito_api.services.MusicImportService;
 import com.oryanend.tom_perfeito_api.services.MusicService;
+import com.oryanend.tom_perfeito_api.services.TranspositionService;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,24 +24,73 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping(value = "/musics")
 public class MusicController {
   @Autowired private MusicService service;
+  @Autowired private TranspositionService transpositionService;
+  @Autowired private MusicImportService importService;
 
   @GetMapping
   public ResponseEntity<Page<MusicMinDTO>> findAll(
-      Pageable pageable, @RequestParam(value = "name", required = false) String name) {
-    Page<MusicMinDTO> list = service.findAllPaged(name, pageable);
+      Pageable pageable,
+      @RequestParam(value = "name", required = false) String name,
+      @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy) {
+    Page<MusicMinDTO> list = service.findAllPaged(name, fuzzy, pageable);
+    return ResponseEntity.ok(list);
+  }
+
+  @GetMapping(value = "/cursor")
+  public ResponseEntity<CursorPageDTO<MusicMinDTO>> findAllByCursor(
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size) {
+    CursorPageDTO<MusicMinDTO> page = service.findAllByCursor(cursor, size);
+    return ResponseEntity.ok(page);
+  }
+
+  @GetMapping(value = "/search")
+  public ResponseEntity<Page<MusicMinDTO>> search(
+      Pageable pageable, @RequestParam(value = "q") String query) {
+    Page<MusicMinDTO> list = service.search(query, pageable);
     return ResponseEntity.ok(list);
   }
 
   @GetMapping(value = "/{id}")
-  public ResponseEntity<MusicDTO> findById(@PathVariable String id) {
-    MusicDTO dto = service.findById(id);
-    return ResponseEntity.ok(dto);
+  public ResponseEntity<MusicDTO> findById(
+      @PathVariable String id,
+      @RequestParam(value = "transpose", defaultValue = "0") Integer transpose,
+      @RequestParam(value = "capo", defaultValue = "0") Integer capo,
+      @RequestParam(value = "fields", required = false) List<String> fields,
+      @RequestParam(value = "expand", required = false) List<String> expand,
+      WebRequest request) {
+    // A capo on fret N raises the sounding pitch, so the shapes to play go N semitones down
+    int semitones = Math.floorMod(transpose - capo, 12);
+    FieldSelection selection = FieldSelection.of(fields, expand);
+
+    // Repeat visits are answered from the version columns alone, before the graph is loaded
+    MusicVersion version = service.findVersionById(id);
+    if (request.checkNotModified(
+        etag(id, version, semitones, selection), version.updatedAt().toEpochMilli())) {
+      return null;
+    }
+
+    // Transposition only touches the lyric, views without it skip the lyric and its chords
+    MusicDTO dto =
+        selection.includes("lyric")
+            ? transpositionService.findTransposed(id, semitones)
+            : service.findSummaryById(id);
+    return ResponseEntity.ok()
+        .eTag(
+            etag(
+                id,
+                new MusicVersion(dto.getUpdatedAt(), dto.getCommentCount()),
+                semitones,
+                selection))
+        .lastModified(dto.getUpdatedAt())
+        .body(dto);
   }
 
   @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
@@ -45,6 +105,14 @@ public class MusicController {
     return ResponseEntity.created(uri).body(dto);
   }
 
+  // One music per line, the body is streamed so catalogs of any size fit
+  @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
+  @PostMapping(value = "/import", consumes = "application/x-ndjson")
+  public ResponseEntity<ImportReportDTO> importMusics(InputStream body) throws IOException {
+    ImportReportDTO report = importService.importMusics(body);
+    return ResponseEntity.ok(report);
+  }
+
   @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
   @PatchMapping(value = "/{id}")
   public ResponseEntity<MusicPatchDTO> update(
@@ -59,4 +127,25 @@ public class MusicController {
     service.delete(id);
     return ResponseEntity.noContent().build();
   }
+
+  // Strong validator made of the music id, its version, the transposition and the fieldset. The
+  // version is the edit time, kept to the microsecond precision the database stores, and the
+  // comment count, so a comment changes the tag without passing for an edit of the song.
+  private static String etag(
+      String id, MusicVersion version, int semitones, FieldSelection selection) {
+    long micros = ChronoUnit.MICROS.between(Instant.EPOCH, version.updatedAt());
+    String tag =
+        UUID.fromString(id)
+            + "-"
+            + Long.toHexString(micros)
+            + "."
+            + Long.toHexString(version.commentCount());
+    if (semitones != 0) {
+      tag += "+" + semitones;
+    }
+    if (!selection.isAll()) {
+      tag += "~" + selection.digest();
+    }
+    return "\"" + tag + "\"";
+  }
 }
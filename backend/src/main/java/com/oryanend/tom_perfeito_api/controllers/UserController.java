@@ -2,6 +2,8 @@ package com.oryanend.tom_perfeito_api.controllers;
 
 import com.oryanend.tom_perfeito_api.dto.UserDTO;
 import com.oryanend.tom_perfeito_api.services.UserService;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,14 +16,19 @@ public class UserController {
 
   @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_CLIENT')")
   @GetMapping(value = "/me")
-  public ResponseEntity<UserDTO> getMe() {
-    UserDTO dto = service.getMe();
+  public ResponseEntity<UserDTO> getMe(
+      @RequestParam(value = "fields", required = false) List<String> fields,
+      @RequestParam(value = "expand", required = false) List<String> expand) {
+    UserDTO dto = service.getMe(FieldSelection.of(fields, expand));
     return ResponseEntity.ok(dto);
   }
 
   @GetMapping(value = "/{id}")
-  public ResponseEntity<UserDTO> findById(@PathVariable String id) {
-    UserDTO dto = service.findById(id);
+  public ResponseEntity<UserDTO> findById(
+      @PathVariable String id,
+      @RequestParam(value = "fields", required = false) List<String> fields,
+      @RequestParam(value = "expand", required = false) List<String> expand) {
+    UserDTO dto = service.findById(id, FieldSelection.of(fields, expand));
     return ResponseEntity.ok(dto);
   }
 }
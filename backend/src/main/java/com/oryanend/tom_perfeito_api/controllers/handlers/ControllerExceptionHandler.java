@@ -4,9 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.oryanend.tom_perfeito_api.db.migration.exceptions.PathNotFoundException;
 import com.oryanend.tom_perfeito_api.services.exceptions.DatabaseException;
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidCursorException;
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidNotationException;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceAlreadyExistsException;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceNotFoundException;
+import com.oryanend.tom_perfeito_api.services.exceptions.ThreadTooDeepException;
 import com.oryanend.tom_perfeito_api.services.exceptions.UnauthorizedActionException;
+import com.oryanend.tom_perfeito_api.services.exceptions.UnknownChordsException;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -17,9 +21,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
+import org.springframework.validation.method.ParameterValidationResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 @ControllerAdvice
 public class ControllerExceptionHandler implements AuthenticationFailureHandler {
@@ -42,6 +49,31 @@ public class ControllerExceptionHandler implements AuthenticationFailureHandler
     return ResponseEntity.status(status).body(err);
   }
 
+  // Element constraints of list bodies, reported with the index of the offending element
+  @ExceptionHandler(HandlerMethodValidationException.class)
+  public ResponseEntity<ValidationError> methodValidation(
+      HandlerMethodValidationException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+    ValidationError err = new ValidationError();
+    err.setTimestamp(Instant.now());
+    err.setStatus(status.value());
+    err.setError("Validation Exception");
+    err.setMessage(e.getMessage());
+    err.setPath(request.getRequestURI());
+
+    for (ParameterValidationResult result : e.getAllValidationResults()) {
+      if (result instanceof ParameterErrors errors) {
+        String prefix =
+            errors.getContainerIndex() != null ? "[" + errors.getContainerIndex() + "]." : "";
+        for (FieldError f : errors.getFieldErrors()) {
+          err.addErrors(prefix + f.getField(), f.getDefaultMessage());
+        }
+      }
+    }
+
+    return ResponseEntity.status(status).body(err);
+  }
+
   @ExceptionHandler(ResourceAlreadyExistsException.class)
   public ResponseEntity<StandardError> resourceAlredyExists(
       ResourceAlreadyExistsException e, HttpServletRequest request) {
@@ -106,6 +138,64 @@ public class ControllerExceptionHandler implements AuthenticationFailureHandler
     return ResponseEntity.status(status).body(err);
   }
 
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<StandardError> invalidCursor(
+      InvalidCursorException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+    StandardError err = new StandardError();
+    err.setTimestamp(Instant.now());
+    err.setStatus(status.value());
+    err.setError("Invalid cursor");
+    err.setMessage(e.getMessage());
+    err.setPath(request.getRequestURI());
+    return ResponseEntity.status(status).body(err);
+  }
+
+  @ExceptionHandler(InvalidNotationException.class)
+  public ResponseEntity<StandardError> invalidNotation(
+      InvalidNotationException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+    StandardError err = new StandardError();
+    err.setTimestamp(Instant.now());
+    err.setStatus(status.value());
+    err.setError("Invalid notation");
+    err.setMessage(e.getMessage());
+    err.setPath(request.getRequestURI());
+    return ResponseEntity.status(status).body(err);
+  }
+
+  @ExceptionHandler(ThreadTooDeepException.class)
+  public ResponseEntity<ValidationError> threadTooDeep(
+      ThreadTooDeepException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+    ValidationError err = new ValidationError();
+    err.setTimestamp(Instant.now());
+    err.setStatus(status.value());
+    err.setError("Validation Exception");
+    err.setMessage(e.getMessage());
+    err.setPath(request.getRequestURI());
+    err.addErrors("parentId", e.getMessage());
+    return ResponseEntity.status(status).body(err);
+  }
+
+  @ExceptionHandler(UnknownChordsException.class)
+  public ResponseEntity<ValidationError> unknownChords(
+      UnknownChordsException e, HttpServletRequest request) {
+    HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+    ValidationError err = new ValidationError();
+    err.setTimestamp(Instant.now());
+    err.setStatus(status.value());
+    err.setError("Validation Exception");
+    err.setMessage(e.getMessage());
+    err.setPath(request.getRequestURI());
+
+    for (Long id : e.getIds()) {
+      err.addErrors("lyric.chords.chordId", "Chord not found: " + id);
+    }
+
+    return ResponseEntity.status(status).body(err);
+  }
+
   @Override
   public void onAuthenticationFailure(
       HttpServletRequest request, HttpServletResponse response, AuthenticationException exception)
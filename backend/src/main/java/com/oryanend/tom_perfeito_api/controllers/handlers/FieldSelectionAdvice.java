@@ -0,0 +1,66 @@
+package com.oryanend.tom_perfeito_api.controllers.handlers;
+
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+// Writes the DTOs of every JSON response through the fieldset of the request, the properties it
+// leaves out are not serialized at any depth
+@RestControllerAdvice
+public class FieldSelectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+  @Override
+  protected void beforeBodyWriteInternal(
+      MappingJacksonValue bodyContainer,
+      MediaType contentType,
+      MethodParameter returnType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+      return;
+    }
+    HttpServletRequest servlet = servletRequest.getServletRequest();
+    FieldSelection selection =
+        FieldSelection.of(values(servlet, "fields"), values(servlet, "expand"));
+    if (!selection.isAll()) {
+      bodyContainer.setFilters(
+          new SimpleFilterProvider()
+              .addFilter(FieldSelection.FILTER, new SelectionFilter(selection)));
+    }
+  }
+
+  private static List<String> values(HttpServletRequest request, String name) {
+    String[] values = request.getParameterValues(name);
+    return values != null ? List.of(values) : null;
+  }
+
+  private static class SelectionFilter extends SimpleBeanPropertyFilter {
+    private final FieldSelection selection;
+
+    SelectionFilter(FieldSelection selection) {
+      this.selection = selection;
+    }
+
+    @Override
+    protected boolean include(BeanPropertyWriter writer) {
+      return selection.includes(writer.getName());
+    }
+
+    @Override
+    protected boolean include(PropertyWriter writer) {
+      return selection.includes(writer.getName());
+    }
+  }
+}
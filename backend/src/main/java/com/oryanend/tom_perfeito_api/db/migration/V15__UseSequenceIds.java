@@ -0,0 +1,55 @@
+package com.oryanend.tom_perfeito_api.db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+// Moves tb_lyric_chord and tb_comments from identity columns to sequences, so Hibernate can
+// assign ids before flushing and group the inserts in JDBC batches. Each sequence starts after
+// the rows already stored and hands out blocks of ALLOCATION_SIZE ids, the allocationSize the
+// entities declare. The column default keeps plain SQL inserts working, its syntax is the only
+// part that differs between H2 and Postgres.
+@Component
+public class V15__UseSequenceIds extends BaseJavaMigration {
+  private static final int ALLOCATION_SIZE = 50;
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection conn = context.getConnection();
+    boolean postgres = conn.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+
+    useSequence(conn, "tb_lyric_chord", postgres);
+    useSequence(conn, "tb_comments", postgres);
+  }
+
+  static void useSequence(Connection conn, String table, boolean postgres) throws SQLException {
+    String sequence = table + "_seq";
+    String nextValue = postgres ? "nextval('" + sequence + "')" : "NEXT VALUE FOR " + sequence;
+
+    try (Statement st = conn.createStatement()) {
+      long start = 1;
+      try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+        if (rs.next()) {
+          start = rs.getLong(1);
+        }
+      }
+
+      st.execute(
+          "CREATE SEQUENCE "
+              + sequence
+              + " START WITH "
+              + start
+              + " INCREMENT BY "
+              + ALLOCATION_SIZE);
+      st.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+      st.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT " + nextValue);
+      if (postgres) {
+        st.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.oryanend.tom_perfeito_api.db.migration;
+
+import java.sql.Connection;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+// Same move as V15 for tb_chord, so bulk chord dictionaries are inserted in JDBC batches
+@Component
+public class V17__UseChordSequence extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection conn = context.getConnection();
+    boolean postgres = conn.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+
+    V15__UseSequenceIds.useSequence(conn, "tb_chord", postgres);
+  }
+}
@@ -0,0 +1,44 @@
+package com.oryanend.tom_perfeito_api.db.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+// Adds the materialized path of tb_comments and fills it for the stored rows one level at a time,
+// each level taking its parents' path followed by the parent id padded to SEGMENT_LENGTH digits,
+// the width CommentPath reads. LPAD and || behave the same on H2 and Postgres. The parent key then
+// cascades, so a subtree can go in one range delete.
+@Component
+public class V19__AddCommentPath extends BaseJavaMigration {
+  private static final int SEGMENT_LENGTH = 19;
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection conn = context.getConnection();
+
+    try (Statement st = conn.createStatement()) {
+      st.execute("ALTER TABLE tb_comments ADD COLUMN path VARCHAR(2000)");
+      st.execute("UPDATE tb_comments SET path = '' WHERE parent_id IS NULL");
+
+      String nextLevel =
+          "UPDATE tb_comments SET path = (SELECT p.path || LPAD(CAST(p.id AS VARCHAR(19)), "
+              + SEGMENT_LENGTH
+              + ", '0') FROM tb_comments p WHERE p.id = tb_comments.parent_id)"
+              + " WHERE path IS NULL AND parent_id IN"
+              + " (SELECT id FROM tb_comments WHERE path IS NOT NULL)";
+      while (st.executeUpdate(nextLevel) > 0) {}
+
+      st.execute("ALTER TABLE tb_comments ALTER COLUMN path SET NOT NULL");
+      st.execute("CREATE INDEX IF NOT EXISTS idx_comments_path ON tb_comments (path)");
+
+      // H2 checks the parent key row by row while a subtree is deleted in one statement, a
+      // cascading key makes the order of the deleted rows irrelevant
+      st.execute("ALTER TABLE tb_comments DROP CONSTRAINT fk_comment_parent");
+      st.execute(
+          "ALTER TABLE tb_comments ADD CONSTRAINT fk_comment_parent FOREIGN KEY (parent_id)"
+              + " REFERENCES tb_comments(id) ON DELETE CASCADE");
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChordSymbolDTO {
+
+  private String symbol;
+  private String root;
+  private ChordType type;
+  private String bass;
+  private List<String> notes;
+
+  public ChordSymbolDTO() {}
+
+  public ChordSymbolDTO(
+      String symbol, String root, ChordType type, String bass, List<String> notes) {
+    this.symbol = symbol;
+    this.root = root;
+    this.type = type;
+    this.bass = bass;
+    this.notes = notes;
+  }
+
+  public String getSymbol() {
+    return symbol;
+  }
+
+  public String getRoot() {
+    return root;
+  }
+
+  public ChordType getType() {
+    return type;
+  }
+
+  public String getBass() {
+    return bass;
+  }
+
+  public List<String> getNotes() {
+    return notes;
+  }
+}
@@ -1,9 +1,14 @@
 package com.oryanend.tom_perfeito_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.oryanend.tom_perfeito_api.entities.Comment;
+import com.oryanend.tom_perfeito_api.projections.CommentSummaryProjection;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
 import java.time.Instant;
 import java.util.List;
 
+@JsonFilter(FieldSelection.FILTER)
 public class CommentDTO {
 
   private Long id;
@@ -15,8 +20,13 @@ public class CommentDTO {
   private Long parentId;
   private UserMinDTO author;
   private MusicMinDTO music;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   private List<CommentDTO> replies;
 
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long replyCount;
+
   public CommentDTO() {}
 
   public CommentDTO(
@@ -51,12 +61,27 @@ public class CommentDTO {
   }
 
   public CommentDTO(Comment entity) {
+    this(entity, entity.getReplies().stream().map(CommentDTO::new).toList());
+  }
+
+  public CommentDTO(Comment entity, List<CommentDTO> replies) {
+    this(entity, replies, FieldSelection.ALL);
+  }
+
+  // Replies are given by the caller, the lazy `replies` collection is left untouched, and so are
+  // the author and the music when the selection leaves them out
+  public CommentDTO(Comment entity, List<CommentDTO> replies, FieldSelection selection) {
     this.id = entity.getId();
     this.body = entity.getBody();
     this.likes = entity.getLikes();
-    this.author = new UserMinDTO(entity.getAuthor());
-    this.music = new MusicMinDTO(entity.getMusic());
+    if (selection.includes("author")) {
+      this.author = new UserMinDTO(entity.getAuthor());
+    }
+    if (selection.includes("music")) {
+      this.music = new MusicMinDTO(entity.getMusic());
+    }
     this.parentId = entity.getParent() != null ? entity.getParent().getId() : null;
+    this.replyCount = entity.getReplyCount();
 
     if (entity.getCreatedAt() != null) {
       this.createdAt = entity.getCreatedAt();
@@ -70,7 +95,23 @@ public class CommentDTO {
       this.updatedAt = Instant.now();
     }
 
-    this.replies = entity.getReplies().stream().map(CommentDTO::new).toList();
+    this.replies = replies;
+  }
+
+  // Listing view, the replies are counted instead of embedded
+  public CommentDTO(CommentSummaryProjection projection) {
+    this.id = projection.getId();
+    this.body = projection.getBody();
+    this.likes = projection.getLikes();
+    this.createdAt = projection.getCreatedAt();
+    this.updatedAt = projection.getUpdatedAt();
+    this.author =
+        new UserMinDTO(
+            projection.getAuthorId(), projection.getAuthorUsername(), projection.getAuthorEmail());
+    this.music =
+        new MusicMinDTO(
+            projection.getMusicId(), projection.getMusicTitle(), projection.getMusicDescription());
+    this.replyCount = projection.getReplyCount();
   }
 
   public Long getId() {
@@ -141,6 +182,10 @@ public class CommentDTO {
     return replies;
   }
 
+  public Long getReplyCount() {
+    return replyCount;
+  }
+
   public void addReply(CommentDTO reply) {
     this.replies.add(reply);
   }
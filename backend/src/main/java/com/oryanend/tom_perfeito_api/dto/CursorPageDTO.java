@@ -0,0 +1,53 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+import com.oryanend.tom_perfeito_api.util.KeysetCursor;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPageDTO<T> {
+
+  public static final int MAX_SIZE = 100;
+
+  private List<T> content;
+  private String nextCursor;
+  private Integer size;
+
+  public CursorPageDTO() {}
+
+  public CursorPageDTO(List<T> content, String nextCursor) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+    this.size = content.size();
+  }
+
+  // Rows are read with one extra element, its presence is what tells that a next page exists
+  public static <E, T> CursorPageDTO<T> of(
+      List<E> rows, int size, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+    if (rows.size() <= size) {
+      return new CursorPageDTO<>(rows.stream().map(mapper).toList(), null);
+    }
+    List<E> page = rows.subList(0, size);
+    return new CursorPageDTO<>(
+        page.stream().map(mapper).toList(), cursorOf.apply(page.getLast()).encode());
+  }
+
+  public static int limit(int size) {
+    return Math.max(1, Math.min(size, MAX_SIZE));
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public Integer getSize() {
+    return size;
+  }
+
+  public boolean isLast() {
+    return nextCursor == null;
+  }
+}
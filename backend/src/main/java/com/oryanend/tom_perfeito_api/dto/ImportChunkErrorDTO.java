@@ -0,0 +1,33 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+public class ImportChunkErrorDTO {
+  private long firstLine;
+  private long lastLine;
+  private long records;
+  private String message;
+
+  public ImportChunkErrorDTO() {}
+
+  public ImportChunkErrorDTO(long firstLine, long lastLine, long records, String message) {
+    this.firstLine = firstLine;
+    this.lastLine = lastLine;
+    this.records = records;
+    this.message = message;
+  }
+
+  public long getFirstLine() {
+    return firstLine;
+  }
+
+  public long getLastLine() {
+    return lastLine;
+  }
+
+  public long getRecords() {
+    return records;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
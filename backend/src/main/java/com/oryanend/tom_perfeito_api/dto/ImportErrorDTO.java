@@ -0,0 +1,21 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+public class ImportErrorDTO {
+  private long line;
+  private String message;
+
+  public ImportErrorDTO() {}
+
+  public ImportErrorDTO(long line, String message) {
+    this.line = line;
+    this.message = message;
+  }
+
+  public long getLine() {
+    return line;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,50 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDTO {
+  private long received;
+  private long imported;
+  private List<ImportErrorDTO> errors = new ArrayList<>();
+  private List<ImportChunkErrorDTO> failedChunks = new ArrayList<>();
+
+  public ImportReportDTO() {}
+
+  public long getReceived() {
+    return received;
+  }
+
+  public long getImported() {
+    return imported;
+  }
+
+  // Records rejected one by one plus every record of the chunks the database refused
+  public long getFailed() {
+    return errors.size() + failedChunks.stream().mapToLong(ImportChunkErrorDTO::getRecords).sum();
+  }
+
+  public List<ImportErrorDTO> getErrors() {
+    return errors;
+  }
+
+  public List<ImportChunkErrorDTO> getFailedChunks() {
+    return failedChunks;
+  }
+
+  public void addReceived() {
+    received++;
+  }
+
+  public void addImported(long count) {
+    imported += count;
+  }
+
+  public void addError(long line, String message) {
+    errors.add(new ImportErrorDTO(line, message));
+  }
+
+  public void addFailedChunk(long firstLine, long lastLine, long records, String message) {
+    failedChunks.add(new ImportChunkErrorDTO(firstLine, lastLine, records, message));
+  }
+}
@@ -1,10 +1,16 @@
 package com.oryanend.tom_perfeito_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class LyricChordDTO {
 
   private Long chordId;
   private Integer position;
 
+  // Only set on transposed renderings
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String symbol;
+
   public LyricChordDTO() {}
 
   public LyricChordDTO(Long chordId, Integer position) {
@@ -12,6 +18,12 @@ public class LyricChordDTO {
     this.position = position;
   }
 
+  public LyricChordDTO(Long chordId, Integer position, String symbol) {
+    this.chordId = chordId;
+    this.position = position;
+    this.symbol = symbol;
+  }
+
   public Long getChordId() {
     return chordId;
   }
@@ -19,4 +31,8 @@ public class LyricChordDTO {
   public Integer getPosition() {
     return position;
   }
+
+  public String getSymbol() {
+    return symbol;
+  }
 }
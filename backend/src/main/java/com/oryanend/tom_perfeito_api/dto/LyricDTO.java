@@ -2,6 +2,7 @@ package com.oryanend.tom_perfeito_api.dto;
 
 import com.oryanend.tom_perfeito_api.entities.Lyric;
 import com.oryanend.tom_perfeito_api.entities.LyricChord;
+import com.oryanend.tom_perfeito_api.util.PackedChords;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,7 +20,9 @@ public class LyricDTO {
   public LyricDTO(Lyric entity) {
     this.text = entity.getText();
 
-    if (entity.getChords() != null) {
+    if (entity.getPackedChords() != null) {
+      this.chords = PackedChords.decode(entity.getPackedChords());
+    } else if (entity.getChords() != null) {
       for (LyricChord lc : entity.getChords()) {
         this.chords.add(new LyricChordDTO(lc.getChord().getId(), lc.getPosition()));
       }
@@ -1,14 +1,20 @@
 package com.oryanend.tom_perfeito_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.oryanend.tom_perfeito_api.entities.Music;
+import com.oryanend.tom_perfeito_api.projections.MusicSummaryProjection;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+@JsonFilter(FieldSelection.FILTER)
 public class MusicDTO {
   private UUID id;
 
@@ -31,6 +37,8 @@ public class MusicDTO {
 
   private UserMinDTO createdBy;
 
+  private Long commentCount;
+
   private Set<CommentDTO> comments = new HashSet<>();
 
   public MusicDTO() {}
@@ -42,6 +50,7 @@ public class MusicDTO {
     this.releaseDate = entity.getReleaseDate();
     this.lyric = new LyricDTO(entity.getLyric());
     this.createdBy = new UserMinDTO(entity.getCreatedBy());
+    this.commentCount = entity.getCommentCount();
 
     if (entity.getCreatedAt() != null) {
       this.createdAt = entity.getCreatedAt();
@@ -56,6 +65,48 @@ public class MusicDTO {
     }
   }
 
+  public MusicDTO(MusicSnapshot snapshot) {
+    this.id = snapshot.id();
+    this.title = snapshot.title();
+    this.description = snapshot.description();
+    this.releaseDate = snapshot.releaseDate();
+    this.createdAt = snapshot.createdAt();
+    this.updatedAt = snapshot.updatedAt();
+    this.commentCount = snapshot.commentCount();
+    if (snapshot.chords() != null) {
+      List<LyricChordDTO> chords = new ArrayList<>(snapshot.chords().size());
+      for (MusicSnapshot.Marker marker : snapshot.chords()) {
+        chords.add(new LyricChordDTO(marker.chordId(), marker.position(), marker.symbol()));
+      }
+      this.lyric = new LyricDTO(snapshot.lyricText(), chords);
+    }
+    if (snapshot.createdById() != null) {
+      this.createdBy =
+          new UserMinDTO(
+              snapshot.createdById(), snapshot.createdByUsername(), snapshot.createdByEmail());
+    }
+  }
+
+  // Lyric-less view, for selections that leave the lyric out
+  public MusicDTO(MusicSummaryProjection projection) {
+    this.id = projection.getId();
+    this.title = projection.getTitle();
+    this.description = projection.getDescription();
+    this.releaseDate = projection.getReleaseDate();
+    this.createdAt = projection.getCreatedAt();
+    this.updatedAt = projection.getUpdatedAt();
+    this.commentCount = projection.getCommentCount();
+    this.createdBy =
+        new UserMinDTO(
+            projection.getCreatedById(),
+            projection.getCreatedByUsername(),
+            projection.getCreatedByEmail());
+  }
+
+  public Long getCommentCount() {
+    return commentCount;
+  }
+
   public UUID getId() {
     return id;
   }
@@ -1,10 +1,9 @@
 package com.oryanend.tom_perfeito_api.dto;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
-import com.oryanend.tom_perfeito_api.controllers.MusicController;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.oryanend.tom_perfeito_api.entities.Music;
+import com.oryanend.tom_perfeito_api.projections.MusicMinProjection;
+import com.oryanend.tom_perfeito_api.util.ResourceLinks;
 import java.util.UUID;
 
 public class MusicMinDTO {
@@ -14,6 +13,9 @@ public class MusicMinDTO {
   private String description;
   private String link;
 
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long commentCount;
+
   public MusicMinDTO() {}
 
   public MusicMinDTO(String title, String description) {
@@ -21,24 +23,35 @@ public class MusicMinDTO {
     this.title = title;
   }
 
+  public MusicMinDTO(UUID id, String title, String description) {
+    this.id = id;
+    this.title = title;
+    this.description = description;
+    this.link = ResourceLinks.music(id);
+  }
+
   public MusicMinDTO(Music entity) {
     this.id = entity.getId();
     this.title = entity.getTitle();
     this.description = entity.getDescription();
-    this.link =
-        linkTo(methodOn(MusicController.class).findById(entity.getId().toString()))
-            .toUri()
-            .toString();
+    this.link = ResourceLinks.music(entity.getId());
+    this.commentCount = entity.getCommentCount();
+  }
+
+  public MusicMinDTO(MusicMinProjection projection) {
+    this.id = projection.getId();
+    this.title = projection.getTitle();
+    this.description = projection.getDescription();
+    this.link = ResourceLinks.music(projection.getId());
+    this.commentCount = projection.getCommentCount();
   }
 
   public MusicMinDTO(MusicDTO entity) {
     this.id = entity.getId();
     this.title = entity.getTitle();
     this.description = entity.getDescription();
-    this.link =
-        linkTo(methodOn(MusicController.class).findById(entity.getId().toString()))
-            .toUri()
-            .toString();
+    this.link = ResourceLinks.music(entity.getId());
+    this.commentCount = entity.getCommentCount();
   }
 
   public String getTitle() {
@@ -53,6 +66,10 @@ public class MusicMinDTO {
     return link;
   }
 
+  public Long getCommentCount() {
+    return commentCount;
+  }
+
   public UUID getId() {
     return id;
   }
@@ -0,0 +1,77 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+import com.oryanend.tom_perfeito_api.entities.Music;
+import com.oryanend.tom_perfeito_api.entities.User;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+// Immutable copy of a music as the caches keep it. Every request builds its own `MusicDTO` from
+// it, so nothing a caller changes reaches the cache, and links are resolved against the host of
+// each request rather than the one that filled the cache. `chords` is null for a music without a
+// lyric.
+public record MusicSnapshot(
+    UUID id,
+    String title,
+    String description,
+    LocalDate releaseDate,
+    Instant createdAt,
+    Instant updatedAt,
+    long commentCount,
+    String lyricText,
+    List<Marker> chords,
+    UUID createdById,
+    String createdByUsername,
+    String createdByEmail) {
+
+  public MusicSnapshot {
+    chords = chords != null ? List.copyOf(chords) : null;
+  }
+
+  public static MusicSnapshot of(Music entity) {
+    String lyricText = null;
+    List<Marker> chords = null;
+    if (entity.getLyric() != null) {
+      LyricDTO lyric = new LyricDTO(entity.getLyric());
+      lyricText = lyric.getText();
+      chords =
+          lyric.getChords().stream()
+              .map(chord -> new Marker(chord.getChordId(), chord.getPosition(), null))
+              .toList();
+    }
+    User createdBy = entity.getCreatedBy();
+    return new MusicSnapshot(
+        entity.getId(),
+        entity.getTitle(),
+        entity.getDescription(),
+        entity.getReleaseDate(),
+        entity.getCreatedAt(),
+        entity.getUpdatedAt(),
+        entity.getCommentCount(),
+        lyricText,
+        chords,
+        createdBy != null ? createdBy.getId() : null,
+        createdBy != null ? createdBy.getUsernameUser() : null,
+        createdBy != null ? createdBy.getEmail() : null);
+  }
+
+  public MusicSnapshot withChords(List<Marker> chords) {
+    return new MusicSnapshot(
+        id,
+        title,
+        description,
+        releaseDate,
+        createdAt,
+        updatedAt,
+        commentCount,
+        lyricText,
+        chords,
+        createdById,
+        createdByUsername,
+        createdByEmail);
+  }
+
+  // A chord marker, `symbol` only set on transposed renderings
+  public record Marker(Long chordId, Integer position, String symbol) {}
+}
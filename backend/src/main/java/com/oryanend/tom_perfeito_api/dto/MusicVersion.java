@@ -0,0 +1,7 @@
+package com.oryanend.tom_perfeito_api.dto;
+
+import java.time.Instant;
+
+// What the validators of a music are made of: `updatedAt` moves with edits to the song, the comment
+// count with comments, both show in the representation
+public record MusicVersion(Instant updatedAt, long commentCount) {}
@@ -1,7 +1,9 @@
 package com.oryanend.tom_perfeito_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.oryanend.tom_perfeito_api.entities.User;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -9,6 +11,7 @@ import java.time.Instant;
 import java.util.*;
 
 @JsonPropertyOrder({"id", "username", "roles", "email", "createdAt", "updatedAt"})
+@JsonFilter(FieldSelection.FILTER)
 public class UserDTO {
   private UUID id;
 
@@ -50,6 +53,11 @@ public class UserDTO {
   }
 
   public UserDTO(User entity) {
+    this(entity, FieldSelection.ALL);
+  }
+
+  // The lazy music list is only walked when the selection asks for it
+  public UserDTO(User entity, FieldSelection selection) {
     this.id = entity.getId();
     this.username = entity.getUsernameUser();
     this.email = entity.getEmail();
@@ -65,7 +73,9 @@ public class UserDTO {
       this.updatedAt = Instant.now();
     }
     entity.getRoles().forEach(role -> roles.add(new RoleDTO(role)));
-    entity.getMusicList().forEach(music -> musics.add(new MusicMinDTO(music)));
+    if (selection.includes("musics")) {
+      entity.getMusicList().forEach(music -> musics.add(new MusicMinDTO(music)));
+    }
   }
 
   public UUID getId() {
@@ -1,11 +1,8 @@
 package com.oryanend.tom_perfeito_api.dto;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
-import com.oryanend.tom_perfeito_api.controllers.UserController;
 import com.oryanend.tom_perfeito_api.entities.User;
+import com.oryanend.tom_perfeito_api.util.ResourceLinks;
 import java.util.UUID;
 
 @JsonPropertyOrder({"id", "username", "email"})
@@ -21,16 +18,14 @@ public class UserMinDTO {
     this.id = id;
     this.username = username;
     this.email = email;
+    this.link = ResourceLinks.user(id);
   }
 
   public UserMinDTO(User entity) {
     this.id = entity.getId();
     this.username = entity.getUsernameUser();
     this.email = entity.getEmail();
-    this.link =
-        linkTo(methodOn(UserController.class).findById(entity.getId().toString()))
-            .toUri()
-            .toString();
+    this.link = ResourceLinks.user(entity.getId());
   }
 
   public UUID getId() {
@@ -4,13 +4,18 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
 import jakarta.persistence.*;
 import java.util.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "chord")
 @Table(name = "tb_chord")
 public class Chord {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chord_seq")
+  @SequenceGenerator(name = "chord_seq", sequenceName = "tb_chord_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, length = 100)
@@ -22,6 +27,7 @@ public class Chord {
 
   @JsonIgnore
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "chord-notes")
   @JoinTable(
       name = "tb_chord_note",
       joinColumns = @JoinColumn(name = "chord_id"),
@@ -1,5 +1,6 @@
 package com.oryanend.tom_perfeito_api.entities;
 
+import com.oryanend.tom_perfeito_api.util.CommentPath;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -13,7 +14,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 public class Comment {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+  @SequenceGenerator(name = "comment_seq", sequenceName = "tb_comments_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false, unique = true, length = 280)
@@ -21,6 +23,10 @@ public class Comment {
 
   private Long likes = 0L;
 
+  // Maintained by bulk updates from `CommentService`, never written through the entity
+  @Column(nullable = false, insertable = false, updatable = false, name = "reply_count")
+  private long replyCount;
+
   @CreationTimestamp
   @Column(nullable = false, updatable = false, name = "created_at")
   private Instant createdAt;
@@ -29,18 +35,22 @@ public class Comment {
   @Column(nullable = false, updatable = false, name = "updated_at")
   private Instant updatedAt;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "author_id", nullable = false)
   private User author;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "music_id", nullable = false)
   private Music music;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "parent_id")
   private Comment parent;
 
+  // Ids of the ancestors from the root down, see `CommentPath`
+  @Column(nullable = false, updatable = false, length = CommentPath.MAX_LENGTH)
+  private String path = "";
+
   @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
   private List<Comment> replies = new ArrayList<>();
 
@@ -75,6 +85,10 @@ public class Comment {
     this.likes = likes;
   }
 
+  public long getReplyCount() {
+    return replyCount;
+  }
+
   public Instant getCreatedAt() {
     return createdAt;
   }
@@ -111,6 +125,14 @@ public class Comment {
     this.parent = parent;
   }
 
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
   public List<Comment> getReplies() {
     return replies;
   }
@@ -20,6 +20,10 @@ public class Lyric {
   @OneToMany(mappedBy = "lyric", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<LyricChord> chords = new ArrayList<>();
 
+  // Set when the markers are kept in packed form instead of tb_lyric_chord rows
+  @Column(name = "packed_chords")
+  private byte[] packedChords;
+
   @OneToOne
   @JoinColumn(name = "music_id", referencedColumnName = "id")
   private Music music;
@@ -56,6 +60,14 @@ public class Lyric {
     chords.add(lc);
   }
 
+  public byte[] getPackedChords() {
+    return packedChords;
+  }
+
+  public void setPackedChords(byte[] packedChords) {
+    this.packedChords = packedChords;
+  }
+
   public Music getMusic() {
     return music;
   }
@@ -7,7 +7,11 @@ import java.util.Objects;
 @Table(name = "tb_lyric_chord")
 public class LyricChord {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lyric_chord_seq")
+  @SequenceGenerator(
+      name = "lyric_chord_seq",
+      sequenceName = "tb_lyric_chord_seq",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne
@@ -36,6 +36,10 @@ public class Music {
   @Column(nullable = false, name = "updated_at")
   private Instant updatedAt;
 
+  // Maintained by bulk updates from `CommentService`, never written through the entity
+  @Column(nullable = false, insertable = false, updatable = false, name = "comment_count")
+  private long commentCount;
+
   @OneToOne(mappedBy = "music", cascade = CascadeType.ALL)
   private Lyric lyric;
 
@@ -103,6 +107,14 @@ public class Music {
     return updatedAt;
   }
 
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public long getCommentCount() {
+    return commentCount;
+  }
+
   public Lyric getLyric() {
     return lyric;
   }
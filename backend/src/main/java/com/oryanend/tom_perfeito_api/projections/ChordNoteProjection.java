@@ -0,0 +1,18 @@
+package com.oryanend.tom_perfeito_api.projections;
+
+import com.oryanend.tom_perfeito_api.entities.enums.Accidental;
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import com.oryanend.tom_perfeito_api.entities.enums.NoteName;
+
+public interface ChordNoteProjection {
+
+  Long getChordId();
+
+  String getChordName();
+
+  ChordType getChordType();
+
+  NoteName getNoteName();
+
+  Accidental getAccidental();
+}
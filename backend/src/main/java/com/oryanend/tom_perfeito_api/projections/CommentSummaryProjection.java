@@ -0,0 +1,31 @@
+package com.oryanend.tom_perfeito_api.projections;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface CommentSummaryProjection {
+
+  Long getId();
+
+  String getBody();
+
+  Long getLikes();
+
+  Instant getCreatedAt();
+
+  Instant getUpdatedAt();
+
+  UUID getAuthorId();
+
+  String getAuthorUsername();
+
+  String getAuthorEmail();
+
+  UUID getMusicId();
+
+  String getMusicTitle();
+
+  String getMusicDescription();
+
+  Long getReplyCount();
+}
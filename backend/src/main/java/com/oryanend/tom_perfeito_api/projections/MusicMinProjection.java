@@ -0,0 +1,17 @@
+package com.oryanend.tom_perfeito_api.projections;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface MusicMinProjection {
+
+  UUID getId();
+
+  String getTitle();
+
+  String getDescription();
+
+  Instant getCreatedAt();
+
+  long getCommentCount();
+}
@@ -0,0 +1,14 @@
+package com.oryanend.tom_perfeito_api.projections;
+
+import java.util.UUID;
+
+public interface MusicSearchProjection {
+
+  UUID getId();
+
+  String getTitle();
+
+  String getDescription();
+
+  String getLyricText();
+}
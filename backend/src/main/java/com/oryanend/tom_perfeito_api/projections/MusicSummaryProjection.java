@@ -0,0 +1,28 @@
+package com.oryanend.tom_perfeito_api.projections;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface MusicSummaryProjection {
+
+  UUID getId();
+
+  String getTitle();
+
+  String getDescription();
+
+  LocalDate getReleaseDate();
+
+  Instant getCreatedAt();
+
+  Instant getUpdatedAt();
+
+  long getCommentCount();
+
+  UUID getCreatedById();
+
+  String getCreatedByUsername();
+
+  String getCreatedByEmail();
+}
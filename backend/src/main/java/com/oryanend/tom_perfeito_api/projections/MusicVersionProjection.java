@@ -0,0 +1,10 @@
+package com.oryanend.tom_perfeito_api.projections;
+
+import java.time.Instant;
+
+public interface MusicVersionProjection {
+
+  Instant getUpdatedAt();
+
+  long getCommentCount();
+}
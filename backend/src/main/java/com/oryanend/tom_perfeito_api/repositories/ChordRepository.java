@@ -1,14 +1,31 @@
 package com.oryanend.tom_perfeito_api.repositories;
 
 import com.oryanend.tom_perfeito_api.entities.Chord;
+import com.oryanend.tom_perfeito_api.projections.ChordNoteProjection;
+import java.util.Collection;
 import java.util.List;
-import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+// Chords are never deleted: packed lyrics keep chord ids in tb_lyric.packed_chords, where no
+// foreign key reaches them. Only reads and saves are exposed, so there is no delete to call.
 @Repository
-public interface ChordRepository extends JpaRepository<Chord, Long> {
+public interface ChordRepository
+    extends org.springframework.data.repository.Repository<Chord, Long> {
+  Page<Chord> findAll(Pageable pageable);
+
+  List<Chord> findAllById(Iterable<Long> ids);
+
+  Chord getReferenceById(Long id);
+
+  <S extends Chord> S save(S entity);
+
+  <S extends Chord> List<S> saveAll(Iterable<S> entities);
+
   List<Chord> findByNameStartingWithIgnoreCase(String name);
 
   @Query(
@@ -24,4 +41,16 @@ public interface ChordRepository extends JpaRepository<Chord, Long> {
       @Param("name") String name,
       @Param("notes") List<String> notes,
       @Param("noteCount") long noteCount);
+
+  @Query(
+      """
+        SELECT c.id AS chordId, c.name AS chordName, c.type AS chordType,
+          n.name AS noteName, n.accidental AS accidental
+        FROM Chord c
+        JOIN c.notes n
+    """)
+  Stream<ChordNoteProjection> streamChordNotes();
+
+  @Query("SELECT c.id FROM Chord c WHERE c.id IN :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,8 +1,158 @@
 package com.oryanend.tom_perfeito_api.repositories;
 
 import com.oryanend.tom_perfeito_api.entities.Comment;
+import com.oryanend.tom_perfeito_api.projections.CommentSummaryProjection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CommentRepository extends JpaRepository<Comment, Long> {}
+public interface CommentRepository extends JpaRepository<Comment, Long> {
+
+  // Top-level comments of a music, walked on the (music_id, parent_id, created_at, id) index, so a
+  // page costs its size.
+  @Query(
+      value =
+          """
+            SELECT c.id AS id, c.body AS body, c.likes AS likes,
+              c.createdAt AS createdAt, c.updatedAt AS updatedAt,
+              a.id AS authorId, a.username AS authorUsername, a.email AS authorEmail,
+              m.id AS musicId, m.title AS musicTitle, m.description AS musicDescription,
+              c.replyCount AS replyCount
+            FROM Comment c JOIN c.author a JOIN c.music m
+            WHERE c.music.id = :musicId AND c.parent IS NULL
+        """,
+      countQuery =
+          """
+            SELECT COUNT(c) FROM Comment c
+            WHERE c.music.id = :musicId AND c.parent IS NULL
+        """)
+  Page<CommentSummaryProjection> findTopLevelByMusic(
+      @Param("musicId") UUID musicId, Pageable pageable);
+
+  @Query(
+      """
+        SELECT c FROM Comment c
+        WHERE c.music.id = :musicId AND c.parent IS NULL
+        ORDER BY c.createdAt DESC, c.id DESC
+    """)
+  List<Comment> findFirstByCursor(@Param("musicId") UUID musicId, Limit limit);
+
+  @Query(
+      """
+        SELECT c FROM Comment c
+        WHERE c.music.id = :musicId AND c.parent IS NULL
+        AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id))
+        ORDER BY c.createdAt DESC, c.id DESC
+    """)
+  List<Comment> findNextByCursor(
+      @Param("musicId") UUID musicId,
+      @Param("createdAt") Instant createdAt,
+      @Param("id") Long id,
+      Limit limit);
+
+  // The roots and, below each, at most `previewSize` replies per comment down to `maxDepth`
+  // levels, through one recursive CTE walking the (parent_id, created_at, id) index. The reply
+  // tree is assembled by the caller. The variants below share the statement and differ in the
+  // associations fetched along with it, so a fieldset never pays for the ones it leaves out.
+  String THREADS =
+      """
+        WITH thread AS (
+          SELECT r.id AS id, 0 AS depth FROM Comment r WHERE r.id IN :ids
+          UNION ALL
+          SELECT c.id AS id, t.depth + 1 AS depth FROM thread t JOIN Comment c ON c.parent.id = t.id
+          WHERE t.depth < :maxDepth AND c.id IN (
+            SELECT s.id FROM Comment s WHERE s.parent.id = c.parent.id
+            ORDER BY s.createdAt, s.id LIMIT :previewSize)
+        )
+        SELECT c FROM Comment c
+        WHERE c.id IN (SELECT t.id FROM thread t)
+        ORDER BY c.createdAt, c.id
+      """;
+
+  @EntityGraph(attributePaths = {"author", "author.roles", "music", "music.lyric"})
+  @Query(THREADS)
+  List<Comment> findThreads(
+      @Param("ids") Collection<Long> ids,
+      @Param("maxDepth") int maxDepth,
+      @Param("previewSize") int previewSize);
+
+  @EntityGraph(attributePaths = {"author", "author.roles"})
+  @Query(THREADS)
+  List<Comment> findThreadsWithAuthors(
+      @Param("ids") Collection<Long> ids,
+      @Param("maxDepth") int maxDepth,
+      @Param("previewSize") int previewSize);
+
+  @EntityGraph(attributePaths = {"music", "music.lyric"})
+  @Query(THREADS)
+  List<Comment> findThreadsWithMusics(
+      @Param("ids") Collection<Long> ids,
+      @Param("maxDepth") int maxDepth,
+      @Param("previewSize") int previewSize);
+
+  @Query(THREADS)
+  List<Comment> findThreadsOnly(
+      @Param("ids") Collection<Long> ids,
+      @Param("maxDepth") int maxDepth,
+      @Param("previewSize") int previewSize);
+
+  @Query(
+      """
+        SELECT c.id AS id, c.body AS body, c.likes AS likes,
+          c.createdAt AS createdAt, c.updatedAt AS updatedAt,
+          a.id AS authorId, a.username AS authorUsername, a.email AS authorEmail,
+          m.id AS musicId, m.title AS musicTitle, m.description AS musicDescription,
+          c.replyCount AS replyCount
+        FROM Comment c JOIN c.author a JOIN c.music m
+        WHERE c.music.id = :musicId AND c.parent.id = :parentId
+        ORDER BY c.createdAt, c.id
+    """)
+  List<CommentSummaryProjection> findFirstRepliesByCursor(
+      @Param("musicId") UUID musicId, @Param("parentId") Long parentId, Limit limit);
+
+  @Query(
+      """
+        SELECT c.id AS id, c.body AS body, c.likes AS likes,
+          c.createdAt AS createdAt, c.updatedAt AS updatedAt,
+          a.id AS authorId, a.username AS authorUsername, a.email AS authorEmail,
+          m.id AS musicId, m.title AS musicTitle, m.description AS musicDescription,
+          c.replyCount AS replyCount
+        FROM Comment c JOIN c.author a JOIN c.music m
+        WHERE c.music.id = :musicId AND c.parent.id = :parentId
+        AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id))
+        ORDER BY c.createdAt, c.id
+    """)
+  List<CommentSummaryProjection> findNextRepliesByCursor(
+      @Param("musicId") UUID musicId,
+      @Param("parentId") Long parentId,
+      @Param("createdAt") Instant createdAt,
+      @Param("id") Long id,
+      Limit limit);
+
+  boolean existsByIdAndMusicId(Long id, UUID musicId);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id = :id")
+  int addReplyCount(@Param("id") Long id, @Param("delta") long delta);
+
+  // A comment and its whole subtree, the descendants being one range over the path index
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      """
+        DELETE FROM Comment c
+        WHERE c.id = :id OR (c.path >= :fromPath AND c.path < :toPath)
+    """)
+  int deleteSubtree(
+      @Param("id") Long id, @Param("fromPath") String fromPath, @Param("toPath") String toPath);
+}
@@ -1,13 +1,119 @@
 package com.oryanend.tom_perfeito_api.repositories;
 
 import com.oryanend.tom_perfeito_api.entities.Music;
+import com.oryanend.tom_perfeito_api.projections.MusicMinProjection;
+import com.oryanend.tom_perfeito_api.projections.MusicSearchProjection;
+import com.oryanend.tom_perfeito_api.projections.MusicSummaryProjection;
+import com.oryanend.tom_perfeito_api.projections.MusicVersionProjection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MusicRepository extends JpaRepository<Music, UUID> {
-  Page<Music> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+  @Query(
+      value =
+          """
+            SELECT m.id AS id, m.title AS title, m.description AS description, m.createdAt AS createdAt,
+              m.commentCount AS commentCount
+            FROM Music m
+        """,
+      countQuery = "SELECT COUNT(m) FROM Music m")
+  Page<MusicMinProjection> searchAll(Pageable pageable);
+
+  @Query(
+      value =
+          """
+            SELECT m.id AS id, m.title AS title, m.description AS description, m.createdAt AS createdAt,
+              m.commentCount AS commentCount
+            FROM Music m
+            WHERE LOWER(m.title) LIKE LOWER(CONCAT('%', :title, '%'))
+        """,
+      countQuery =
+          """
+            SELECT COUNT(m) FROM Music m
+            WHERE LOWER(m.title) LIKE LOWER(CONCAT('%', :title, '%'))
+        """)
+  Page<MusicMinProjection> searchByTitle(@Param("title") String title, Pageable pageable);
+
+  @Query(
+      """
+        SELECT m.id AS id, m.title AS title, m.description AS description, m.createdAt AS createdAt,
+              m.commentCount AS commentCount
+        FROM Music m
+        WHERE m.id IN :ids
+    """)
+  List<MusicMinProjection> searchByIds(@Param("ids") Collection<UUID> ids);
+
+  @Query(
+      """
+        SELECT m.id AS id, m.title AS title, m.description AS description, m.createdAt AS createdAt,
+              m.commentCount AS commentCount
+        FROM Music m
+        ORDER BY m.createdAt DESC, m.id DESC
+    """)
+  List<MusicMinProjection> findFirstByCursor(Limit limit);
+
+  @Query(
+      """
+        SELECT m.id AS id, m.title AS title, m.description AS description, m.createdAt AS createdAt,
+              m.commentCount AS commentCount
+        FROM Music m
+        WHERE m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)
+        ORDER BY m.createdAt DESC, m.id DESC
+    """)
+  List<MusicMinProjection> findNextByCursor(
+      @Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
+  @Query(
+      """
+        SELECT m.id AS id, m.title AS title, m.description AS description, l.text AS lyricText
+        FROM Music m
+        LEFT JOIN m.lyric l
+    """)
+  Stream<MusicSearchProjection> streamSearchDocuments();
+
+  @Query(
+      """
+        SELECT m FROM Music m
+        LEFT JOIN FETCH m.lyric l
+        LEFT JOIN FETCH l.chords lc
+        LEFT JOIN FETCH lc.chord
+        LEFT JOIN FETCH m.createdBy u
+        LEFT JOIN FETCH u.roles
+        WHERE m.id = :id
+    """)
+  Optional<Music> findWithLyricById(@Param("id") UUID id);
+
+  // The music row and its author's name, without the lyric and its chords
+  @Query(
+      """
+        SELECT m.id AS id, m.title AS title, m.description AS description,
+          m.releaseDate AS releaseDate, m.createdAt AS createdAt, m.updatedAt AS updatedAt,
+          m.commentCount AS commentCount, u.id AS createdById,
+          u.username AS createdByUsername, u.email AS createdByEmail
+        FROM Music m
+        LEFT JOIN m.createdBy u
+        WHERE m.id = :id
+    """)
+  Optional<MusicSummaryProjection> findSummaryById(@Param("id") UUID id);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Music m SET m.commentCount = m.commentCount + :delta WHERE m.id = :id")
+  int addCommentCount(@Param("id") UUID id, @Param("delta") long delta);
+
+  @Query(
+      "SELECT m.updatedAt AS updatedAt, m.commentCount AS commentCount FROM Music m WHERE m.id = :id")
+  Optional<MusicVersionProjection> findVersionById(@Param("id") UUID id);
 }
@@ -1,13 +1,37 @@
 package com.oryanend.tom_perfeito_api.services;
 
 import com.oryanend.tom_perfeito_api.dto.ChordDTO;
+import com.oryanend.tom_perfeito_api.dto.ChordSymbolDTO;
+import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
 import com.oryanend.tom_perfeito_api.entities.Chord;
 import com.oryanend.tom_perfeito_api.entities.Note;
+import com.oryanend.tom_perfeito_api.projections.ChordNoteProjection;
 import com.oryanend.tom_perfeito_api.repositories.ChordRepository;
 import com.oryanend.tom_perfeito_api.repositories.NoteRepository;
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidNotationException;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceNotFoundException;
+import com.oryanend.tom_perfeito_api.services.exceptions.UnknownChordsException;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordEngine;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordIndex;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordMatch;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordSymbol;
+import com.oryanend.tom_perfeito_api.services.harmony.NoteRegistry;
+import com.oryanend.tom_perfeito_api.services.harmony.PitchClasses;
+import com.oryanend.tom_perfeito_api.util.AfterCommit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,6 +41,26 @@ import org.springframework.transaction.annotation.Transactional;
 public class ChordService {
   @Autowired private ChordRepository repository;
   @Autowired private NoteRepository noteRepository;
+  @Autowired private ChordIndex chordIndex;
+  @Autowired private ChordEngine chordEngine;
+  @Autowired private NoteRegistry noteRegistry;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void buildChordIndex() {
+    Map<Long, ChordIndex.Entry> chords = new HashMap<>();
+    try (Stream<ChordNoteProjection> rows = repository.streamChordNotes()) {
+      rows.forEach(
+          row -> {
+            int bit = 1 << PitchClasses.of(row.getNoteName(), row.getAccidental());
+            chords.merge(
+                row.getChordId(),
+                new ChordIndex.Entry(row.getChordName(), row.getChordType(), bit),
+                (a, b) -> new ChordIndex.Entry(a.name(), a.type(), a.mask() | b.mask()));
+          });
+    }
+    chordIndex.rebuild(chords);
+  }
 
   @Transactional(readOnly = true)
   public Page<ChordDTO> findAllPaged(Pageable pageable) {
@@ -25,36 +69,157 @@ public class ChordService {
   }
 
   @Transactional(readOnly = true)
-  public List<ChordDTO> searchChords(String name, List<String> notes) {
+  public List<ChordDTO> searchChords(String name, List<String> notes, ChordMatch match) {
     if (notes != null && !notes.isEmpty()) {
-      return repository.findByNameAndNotes(name, notes, notes.size()).stream()
-          .map(ChordDTO::new)
-          .toList();
+      return searchByNotes(name, notes, match);
     } else {
       return repository.findByNameStartingWithIgnoreCase(name).stream().map(ChordDTO::new).toList();
     }
   }
 
+  // Notes are matched by pitch class against the in-memory index, only the hits are read back
+  private List<ChordDTO> searchByNotes(String name, List<String> notes, ChordMatch match) {
+    int queryMask = 0;
+    for (String note : notes) {
+      int pitchClass = PitchClasses.parse(note);
+      if (pitchClass < 0) {
+        return List.of();
+      }
+      queryMask |= 1 << pitchClass;
+    }
+
+    List<Long> ids = new ArrayList<>();
+    if (chordIndex.search(queryMask, match, name, ids::add) == 0) {
+      return List.of();
+    }
+
+    Map<Long, Chord> rows =
+        repository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Chord::getId, Function.identity()));
+    return ids.stream().map(rows::get).filter(Objects::nonNull).map(ChordDTO::new).toList();
+  }
+
+  // Fails with every unknown id at once. The in-memory index answers for the catalog it was built
+  // with, only ids it does not know are looked up, all in one IN query.
+  @Transactional(readOnly = true)
+  public void validateChordIds(Collection<LyricChordDTO> chords) {
+    Set<Long> unindexed = new TreeSet<>();
+    for (LyricChordDTO chord : chords) {
+      Long id = chord.getChordId();
+      if (id != null && chordIndex.maskOf(id) < 0) {
+        unindexed.add(id);
+      }
+    }
+    if (unindexed.isEmpty()) {
+      return;
+    }
+
+    unindexed.removeAll(repository.findExistingIds(unindexed));
+    if (!unindexed.isEmpty()) {
+      throw new UnknownChordsException(List.copyOf(unindexed));
+    }
+  }
+
+  public ChordSymbolDTO parseSymbol(String symbol) {
+    return toSymbolDTO(chordEngine.parse(symbol));
+  }
+
+  public List<ChordSymbolDTO> identify(List<String> notes) {
+    int mask = 0;
+    for (String note : notes) {
+      int pitchClass = PitchClasses.parse(note);
+      if (pitchClass < 0) {
+        throw new InvalidNotationException("Invalid note: " + note);
+      }
+      mask |= 1 << pitchClass;
+    }
+    return chordEngine.identify(mask).stream().map(this::toSymbolDTO).toList();
+  }
+
+  private ChordSymbolDTO toSymbolDTO(ChordSymbol chord) {
+    return new ChordSymbolDTO(
+        chordEngine.format(chord),
+        PitchClasses.name(chord.root()),
+        chord.type(),
+        chord.hasBass() ? PitchClasses.name(chord.bass()) : null,
+        PitchClasses.names(chordEngine.mask(chord), chord.root()));
+  }
+
   @Transactional
   public ChordDTO insert(ChordDTO dto) {
     Chord entity = new Chord();
-    copyDtoToEntity(dto, entity);
+    copyDtoToEntity(dto, entity, resolveNotes(List.of(dto)));
     entity = repository.save(entity);
+    index(List.of(entity));
     return new ChordDTO(entity);
   }
 
-  private void copyDtoToEntity(ChordDTO dto, Chord entity) {
+  // A whole chord dictionary in one transaction: notes are resolved once for every chord and the
+  // rows go out in JDBC batches
+  @Transactional
+  public List<ChordDTO> insertAll(List<ChordDTO> dtos) {
+    Map<Long, Note> notes = resolveNotes(dtos);
+    List<Chord> entities = new ArrayList<>(dtos.size());
+    for (ChordDTO dto : dtos) {
+      Chord entity = new Chord();
+      copyDtoToEntity(dto, entity, notes);
+      entities.add(entity);
+    }
+
+    entities = repository.saveAll(entities);
+    index(entities);
+    return entities.stream().map(ChordDTO::new).toList();
+  }
+
+  // Committed chords only, and like the startup build only those with notes
+  private void index(List<Chord> entities) {
+    Map<Long, ChordIndex.Entry> chords = new HashMap<>();
+    for (Chord entity : entities) {
+      int mask = PitchClasses.mask(entity.getNotes());
+      if (mask != 0) {
+        chords.put(entity.getId(), new ChordIndex.Entry(entity.getName(), entity.getType(), mask));
+      }
+    }
+    AfterCommit.run(() -> chords.forEach(chordIndex::put));
+  }
+
+  // Notes come from the registry, only ids it does not know are read, all in one query
+  private Map<Long, Note> resolveNotes(Collection<ChordDTO> dtos) {
+    Map<Long, Note> notes = new HashMap<>();
+    Set<Long> missing = new TreeSet<>();
+    for (ChordDTO dto : dtos) {
+      for (Note noteDTO : dto.getNotes()) {
+        Note note = noteRegistry.get(noteDTO.getId());
+        if (note != null) {
+          notes.put(note.getId(), note);
+        } else {
+          missing.add(noteDTO.getId());
+        }
+      }
+    }
+    if (missing.isEmpty()) {
+      return notes;
+    }
+
+    for (Note note : noteRepository.findAllById(missing)) {
+      AfterCommit.run(() -> noteRegistry.put(note));
+      notes.put(note.getId(), note);
+      missing.remove(note.getId());
+    }
+    if (!missing.isEmpty()) {
+      throw new ResourceNotFoundException("Notes not found: " + missing);
+    }
+    return notes;
+  }
+
+  private void copyDtoToEntity(ChordDTO dto, Chord entity, Map<Long, Note> notes) {
     entity.setName(dto.getName());
     entity.setType(dto.getType());
     entity.setId(dto.getId());
 
     entity.getNotes().clear();
     for (Note noteDTO : dto.getNotes()) {
-      Note note =
-          noteRepository
-              .findById(noteDTO.getId())
-              .orElseThrow(() -> new ResourceNotFoundException("Note not found: " + noteDTO));
-      entity.getNotes().add(note);
+      entity.getNotes().add(notes.get(noteDTO.getId()));
     }
   }
 }
@@ -0,0 +1,42 @@
+package com.oryanend.tom_perfeito_api.services;
+
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Safety net for the denormalized counters. `CommentService` keeps tb_music.comment_count and
+// tb_comments.reply_count in step with every insert and delete, this job recounts both off-peak
+// and rewrites only the rows that drifted, e.g. after rows were changed by hand. Cached musics
+// whose count was corrected are evicted, their ETags follow the new count.
+@Component
+public class CommentCounterReconciler {
+
+  private static final String DRIFTED_MUSICS =
+      "SELECT id FROM tb_music WHERE comment_count <>"
+          + " (SELECT COUNT(*) FROM tb_comments c WHERE c.music_id = tb_music.id)";
+  private static final String RECONCILE_MUSICS =
+      "UPDATE tb_music SET comment_count ="
+          + " (SELECT COUNT(*) FROM tb_comments c WHERE c.music_id = tb_music.id)"
+          + " WHERE comment_count <>"
+          + " (SELECT COUNT(*) FROM tb_comments c WHERE c.music_id = tb_music.id)";
+  private static final String RECONCILE_COMMENTS =
+      "UPDATE tb_comments SET reply_count ="
+          + " (SELECT COUNT(*) FROM tb_comments r WHERE r.parent_id = tb_comments.id)"
+          + " WHERE reply_count <>"
+          + " (SELECT COUNT(*) FROM tb_comments r WHERE r.parent_id = tb_comments.id)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private MusicCacheInvalidator musicCacheInvalidator;
+
+  // Returns how many rows were corrected
+  @Scheduled(cron = "${comment.counters.reconcile-cron}")
+  public int reconcile() {
+    List<UUID> drifted = jdbcTemplate.queryForList(DRIFTED_MUSICS, UUID.class);
+    int corrected = jdbcTemplate.update(RECONCILE_MUSICS);
+    drifted.forEach(musicCacheInvalidator::evict);
+    return corrected + jdbcTemplate.update(RECONCILE_COMMENTS);
+  }
+}
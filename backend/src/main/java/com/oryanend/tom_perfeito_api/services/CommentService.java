@@ -1,22 +1,38 @@
 package com.oryanend.tom_perfeito_api.services;
 
 import com.oryanend.tom_perfeito_api.dto.CommentDTO;
+import com.oryanend.tom_perfeito_api.dto.CursorPageDTO;
 import com.oryanend.tom_perfeito_api.entities.Comment;
 import com.oryanend.tom_perfeito_api.entities.Music;
 import com.oryanend.tom_perfeito_api.entities.User;
+import com.oryanend.tom_perfeito_api.projections.CommentSummaryProjection;
 import com.oryanend.tom_perfeito_api.repositories.CommentRepository;
 import com.oryanend.tom_perfeito_api.repositories.MusicRepository;
 import com.oryanend.tom_perfeito_api.services.exceptions.DatabaseException;
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidCursorException;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceNotFoundException;
+import com.oryanend.tom_perfeito_api.services.exceptions.ThreadTooDeepException;
+import com.oryanend.tom_perfeito_api.services.stream.CommentStreamBroker;
+import com.oryanend.tom_perfeito_api.util.CommentPath;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
+import com.oryanend.tom_perfeito_api.util.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class CommentService {
@@ -25,20 +41,135 @@ public class CommentService {
 
   @Autowired private MusicRepository musicRepository;
   @Autowired private CommentRepository repository;
+  @Autowired private MusicCacheInvalidator musicCacheInvalidator;
+  @Autowired private CommentStreamBroker commentStreamBroker;
+
+  @Value("${comment.replies.preview-size}")
+  private int previewSize;
+
+  @Value("${comment.replies.max-depth}")
+  private int maxDepth;
 
   @Transactional(readOnly = true)
-  public Page<CommentDTO> findAllPaged(Pageable pageable) {
-    Page<Comment> list = repository.findAll(pageable);
+  public Page<CommentDTO> findAllPaged(UUID musicId, Pageable pageable) {
+    Page<CommentSummaryProjection> list = repository.findTopLevelByMusic(musicId, pageable);
     return list.map(CommentDTO::new);
   }
 
   @Transactional(readOnly = true)
-  public CommentDTO findById(Long id) {
-    Comment entity =
-        repository
-            .findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
-    return new CommentDTO(entity);
+  public CursorPageDTO<CommentDTO> findAllByCursor(
+      UUID musicId, String cursor, int size, FieldSelection selection) {
+    int pageSize = CursorPageDTO.limit(size);
+    Limit limit = Limit.of(pageSize + 1);
+
+    List<Comment> rows;
+    if (cursor == null || cursor.isEmpty()) {
+      rows = repository.findFirstByCursor(musicId, limit);
+    } else {
+      KeysetCursor position = KeysetCursor.decode(cursor);
+      rows =
+          repository.findNextByCursor(
+              musicId, position.createdAt(), parseCommentId(position), limit);
+    }
+
+    Map<Long, CommentDTO> threads =
+        loadThreads(rows.stream().limit(pageSize).map(Comment::getId).toList(), selection);
+    return CursorPageDTO.of(
+        rows,
+        pageSize,
+        row -> new KeysetCursor(row.getCreatedAt(), row.getId().toString()),
+        row -> threads.get(row.getId()));
+  }
+
+  private static Long parseCommentId(KeysetCursor position) {
+    try {
+      return Long.valueOf(position.id());
+    } catch (NumberFormatException e) {
+      throw new InvalidCursorException("Invalid cursor: " + position.encode());
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public CommentDTO findById(Long id, FieldSelection selection) {
+    CommentDTO dto = loadThreads(List.of(id), selection).get(id);
+    if (dto == null) {
+      throw new ResourceNotFoundException("Comment not found");
+    }
+    return dto;
+  }
+
+  @Transactional(readOnly = true)
+  public CursorPageDTO<CommentDTO> findRepliesByCursor(
+      UUID musicId, Long id, String cursor, int size) {
+    int pageSize = CursorPageDTO.limit(size);
+    Limit limit = Limit.of(pageSize + 1);
+
+    List<CommentSummaryProjection> rows;
+    if (cursor == null || cursor.isEmpty()) {
+      rows = repository.findFirstRepliesByCursor(musicId, id, limit);
+      // Only an empty first page pays for telling a missing comment from one without replies
+      if (rows.isEmpty() && !repository.existsByIdAndMusicId(id, musicId)) {
+        throw new ResourceNotFoundException("Comment not found");
+      }
+    } else {
+      KeysetCursor position = KeysetCursor.decode(cursor);
+      rows =
+          repository.findNextRepliesByCursor(
+              musicId, id, position.createdAt(), parseCommentId(position), limit);
+    }
+
+    return CursorPageDTO.of(
+        rows,
+        pageSize,
+        row -> new KeysetCursor(row.getCreatedAt(), row.getId().toString()),
+        CommentDTO::new);
+  }
+
+  // Each root comes with a bounded preview of its replies from one query, linked to their parents
+  // through the id map in one pass and in creation order. The reply count of every node tells the
+  // client how many more `/replies` holds. Only the roots are read when the selection leaves the
+  // replies out, and authors and musics only when it asks for them.
+  private Map<Long, CommentDTO> loadThreads(Collection<Long> rootIds, FieldSelection selection) {
+    Map<Long, CommentDTO> threads = new LinkedHashMap<>();
+    if (rootIds.isEmpty()) {
+      return threads;
+    }
+    boolean replies = selection.includes("replies");
+    for (Comment comment : findThreads(rootIds, replies ? maxDepth : 0, selection)) {
+      threads.put(
+          comment.getId(), new CommentDTO(comment, replies ? new ArrayList<>() : null, selection));
+    }
+    if (!replies) {
+      return threads;
+    }
+    for (CommentDTO dto : threads.values()) {
+      CommentDTO parent = dto.getParentId() != null ? threads.get(dto.getParentId()) : null;
+      if (parent != null) {
+        parent.addReply(dto);
+      }
+    }
+    return threads;
+  }
+
+  private List<Comment> findThreads(Collection<Long> rootIds, int depth, FieldSelection selection) {
+    boolean authors = selection.includes("author");
+    boolean musics = selection.includes("music");
+    if (authors && musics) {
+      return repository.findThreads(rootIds, depth, previewSize);
+    } else if (authors) {
+      return repository.findThreadsWithAuthors(rootIds, depth, previewSize);
+    } else if (musics) {
+      return repository.findThreadsWithMusics(rootIds, depth, previewSize);
+    }
+    return repository.findThreadsOnly(rootIds, depth, previewSize);
+  }
+
+  @Transactional(readOnly = true)
+  public SseEmitter subscribe(UUID musicId) {
+    if (!musicRepository.existsById(musicId)) {
+      throw new ResourceNotFoundException("Music not found");
+    }
+    return commentStreamBroker.subscribe(musicId);
   }
 
   @Transactional
@@ -61,12 +192,26 @@ public class CommentService {
               .findById(dto.getParentId())
               .orElseThrow(() -> new ResourceNotFoundException("Parent comment not found"));
 
+      // The reply's path holds one more segment than its parent's and must still fit the column
+      if (CommentPath.depth(parentComment.getPath()) >= CommentPath.MAX_DEPTH) {
+        throw new ThreadTooDeepException(CommentPath.MAX_DEPTH);
+      }
       entity.setParent(parentComment);
+      entity.setPath(CommentPath.descendants(parentComment.getPath(), parentComment.getId()));
       parentComment.addReply(entity);
     }
 
     entity = repository.save(entity);
-    return new CommentDTO(entity);
+    CommentDTO result = new CommentDTO(entity);
+
+    // Counters move in place, concurrent comments never overwrite each other's increment
+    musicRepository.addCommentCount(musicId, 1);
+    if (entity.getParent() != null) {
+      repository.addReplyCount(entity.getParent().getId(), 1);
+    }
+    musicCacheInvalidator.evict(musicId);
+    commentStreamBroker.publish(musicId, CommentStreamBroker.CREATED, result);
+    return result;
   }
 
   @Transactional
@@ -76,7 +221,10 @@ public class CommentService {
       authService.validateCreatedCommentBySelfOrAdmin(entity);
       copyPatchDtoToEntity(dto, entity);
       entity = repository.save(entity);
-      return new CommentDTO(entity);
+      musicCacheInvalidator.evict(entity.getMusic().getId());
+      CommentDTO result = loadThreads(List.of(id), FieldSelection.ALL).get(id);
+      commentStreamBroker.publish(entity.getMusic().getId(), CommentStreamBroker.UPDATED, result);
+      return result;
     } catch (EntityNotFoundException e) {
       throw new ResourceNotFoundException("Comment not found");
     }
@@ -88,7 +236,17 @@ public class CommentService {
       Comment comment = repository.getReferenceById(id);
       authService.validateCreatedCommentBySelfOrAdmin(comment);
 
-      repository.deleteById(id);
+      UUID musicId = comment.getMusic().getId();
+      Long parentId = comment.getParent() != null ? comment.getParent().getId() : null;
+      String descendants = CommentPath.descendants(comment.getPath(), comment.getId());
+
+      int deleted = repository.deleteSubtree(id, descendants, CommentPath.upperBound(descendants));
+      musicRepository.addCommentCount(musicId, -deleted);
+      if (parentId != null) {
+        repository.addReplyCount(parentId, -1);
+      }
+      musicCacheInvalidator.evict(musicId);
+      commentStreamBroker.publish(musicId, CommentStreamBroker.DELETED, Map.of("id", id));
     } catch (DataIntegrityViolationException e) {
       throw new DatabaseException("Referential integrity error");
     } catch (EntityNotFoundException e) {
@@ -0,0 +1,89 @@
+package com.oryanend.tom_perfeito_api.services;
+
+import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
+import com.oryanend.tom_perfeito_api.util.PackedChords;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Migration path to PACKED storage. Once the storage is switched, lyrics still holding
+// tb_lyric_chord rows are packed at startup a chunk at a time, each chunk moving its markers into
+// tb_lyric.packed_chords and deleting the rows in one transaction. The rows change under JPA, so
+// every packed music is evicted from the musics cache.
+@Component
+public class LyricChordPacker {
+
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private MusicCacheInvalidator musicCacheInvalidator;
+
+  @Value("${lyric.chord-storage}")
+  private LyricChordStorage chordStorage;
+
+  @Value("${music.import.chunk-size}")
+  private int chunkSize;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void packOnStartup() {
+    if (chordStorage == LyricChordStorage.PACKED) {
+      packAll();
+    }
+  }
+
+  // Returns how many lyrics were packed
+  public long packAll() {
+    long packed = 0;
+    int count;
+    do {
+      count = transactionTemplate.execute(status -> packChunk());
+      packed += count;
+    } while (count == chunkSize);
+    return packed;
+  }
+
+  private int packChunk() {
+    Map<UUID, UUID> musicIds = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        """
+          SELECT l.id, l.music_id FROM tb_lyric l
+          WHERE l.id IN (SELECT DISTINCT lyric_id FROM tb_lyric_chord LIMIT :limit)
+        """,
+        Map.of("limit", chunkSize),
+        rs -> {
+          musicIds.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+        });
+    if (musicIds.isEmpty()) {
+      return 0;
+    }
+    List<UUID> lyricIds = List.copyOf(musicIds.keySet());
+
+    Map<UUID, List<LyricChordDTO>> markers = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "SELECT lyric_id, chord_id, position FROM tb_lyric_chord WHERE lyric_id IN (:ids)",
+        Map.of("ids", lyricIds),
+        rs -> {
+          markers
+              .computeIfAbsent(rs.getObject(1, UUID.class), id -> new ArrayList<>())
+              .add(new LyricChordDTO(rs.getLong(2), rs.getInt(3)));
+        });
+
+    List<Map<String, Object>> updates = new ArrayList<>(markers.size());
+    markers.forEach(
+        (id, chords) -> updates.add(Map.of("id", id, "packed", PackedChords.encode(chords))));
+    jdbcTemplate.batchUpdate(
+        "UPDATE tb_lyric SET packed_chords = :packed WHERE id = :id", updates.toArray(Map[]::new));
+    jdbcTemplate.update(
+        "DELETE FROM tb_lyric_chord WHERE lyric_id IN (:ids)", Map.of("ids", lyricIds));
+    musicIds.values().forEach(musicCacheInvalidator::evict);
+    return lyricIds.size();
+  }
+}
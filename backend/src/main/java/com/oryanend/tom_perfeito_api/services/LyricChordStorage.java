@@ -0,0 +1,10 @@
+package com.oryanend.tom_perfeito_api.services;
+
+// Where the chord markers of a lyric are written. ROWS keeps one tb_lyric_chord row per marker,
+// PACKED keeps them all in the varint encoded tb_lyric.packed_chords column. Reads handle both.
+// Packed chord ids have no foreign key, they stay valid because chords are never deleted (see
+// ChordRepository).
+public enum LyricChordStorage {
+  ROWS,
+  PACKED
+}
@@ -0,0 +1,37 @@
+package com.oryanend.tom_perfeito_api.services;
+
+import com.oryanend.tom_perfeito_api.config.CacheConfig;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class MusicCacheInvalidator {
+
+  @Autowired private CacheManager cacheManager;
+
+  // Evicts right away, so the rest of the transaction never reads the old DTO, and once more when
+  // the transaction completes, so a concurrent read that loaded the old row meanwhile does not
+  // stay cached
+  public void evict(UUID musicId) {
+    Cache cache = cacheManager.getCache(CacheConfig.MUSICS);
+    if (cache == null) {
+      return;
+    }
+    cache.evict(musicId);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              cache.evict(musicId);
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package com.oryanend.tom_perfeito_api.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oryanend.tom_perfeito_api.dto.ImportReportDTO;
+import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicDTO;
+import com.oryanend.tom_perfeito_api.services.exceptions.UnknownChordsException;
+import com.oryanend.tom_perfeito_api.services.search.FuzzyTitleIndex;
+import com.oryanend.tom_perfeito_api.services.search.MusicSearchIndex;
+import com.oryanend.tom_perfeito_api.util.PackedChords;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Bulk catalog import. The NDJSON body is read one line at a time, valid records are buffered up
+// to the chunk size and written with batched JDBC inserts, one transaction per chunk, so memory
+// stays bounded and a bad record never costs more than its own chunk.
+@Service
+public class MusicImportService {
+
+  private static final String INSERT_MUSIC =
+      "INSERT INTO tb_music (id, created_by_id, title, description, release_date, created_at,"
+          + " updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_LYRIC =
+      "INSERT INTO tb_lyric (id, text, music_id, packed_chords) VALUES (?, ?, ?, ?)";
+  private static final String INSERT_LYRIC_CHORD =
+      "INSERT INTO tb_lyric_chord (lyric_id, chord_id, position) VALUES (?, ?, ?)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private Validator validator;
+  @Autowired private ChordService chordService;
+  @Autowired private UserService userService;
+  @Autowired private MusicSearchIndex searchIndex;
+  @Autowired private FuzzyTitleIndex fuzzyTitleIndex;
+
+  @Value("${music.import.chunk-size}")
+  private int chunkSize;
+
+  @Value("${lyric.chord-storage}")
+  private LyricChordStorage chordStorage;
+
+  public ImportReportDTO importMusics(InputStream input) throws IOException {
+    UUID createdBy = userService.authenticated().getId();
+    ImportReportDTO report = new ImportReportDTO();
+    List<PendingMusic> chunk = new ArrayList<>(chunkSize);
+
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    long lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      report.addReceived();
+
+      MusicDTO dto;
+      try {
+        dto = objectMapper.readValue(line, MusicDTO.class);
+      } catch (JsonProcessingException e) {
+        report.addError(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+        continue;
+      }
+
+      String error = validate(dto);
+      if (error != null) {
+        report.addError(lineNumber, error);
+        continue;
+      }
+
+      chunk.add(new PendingMusic(lineNumber, UUID.randomUUID(), UUID.randomUUID(), dto));
+      if (chunk.size() >= chunkSize) {
+        flush(chunk, createdBy, report);
+      }
+    }
+    flush(chunk, createdBy, report);
+    return report;
+  }
+
+  // Chords are checked up front, the database only sees records that fit
+  private String validate(MusicDTO dto) {
+    if (dto == null) {
+      return "Empty record";
+    }
+    List<ConstraintViolation<MusicDTO>> violations =
+        validator.validate(dto).stream()
+            .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+            .toList();
+    if (!violations.isEmpty()) {
+      return violations.stream()
+          .map(ConstraintViolation::getMessage)
+          .collect(Collectors.joining(", "));
+    }
+    if (dto.getLyric().getText() == null) {
+      return "Lyric text cannot be null";
+    }
+    if (dto.getLyric().getChords() == null) {
+      return null;
+    }
+    for (LyricChordDTO chord : dto.getLyric().getChords()) {
+      if (chord == null || chord.getChordId() == null || chord.getPosition() == null) {
+        return "Lyric chords need a chordId and a position";
+      }
+    }
+    try {
+      chordService.validateChordIds(dto.getLyric().getChords());
+    } catch (UnknownChordsException e) {
+      return e.getMessage();
+    }
+    return null;
+  }
+
+  // A constraint violation is isolated by retrying the records alone, any other database failure
+  // (lost connection, lock timeout, ...) fails the chunk as a whole and the import moves on
+  private void flush(List<PendingMusic> chunk, UUID createdBy, ImportReportDTO report) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> write(chunk, createdBy));
+      committed(chunk, report);
+    } catch (DataIntegrityViolationException e) {
+      retryAlone(chunk, createdBy, report);
+    } catch (DataAccessException e) {
+      report.addFailedChunk(
+          chunk.getFirst().line(), chunk.getLast().line(), chunk.size(), databaseError(e));
+    }
+    chunk.clear();
+  }
+
+  // The chunk was rolled back as a whole, its records are retried alone to isolate the culprit
+  private void retryAlone(List<PendingMusic> chunk, UUID createdBy, ImportReportDTO report) {
+    for (PendingMusic music : chunk) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> write(List.of(music), createdBy));
+        committed(List.of(music), report);
+      } catch (DataIntegrityViolationException e) {
+        report.addError(music.line(), "Referential integrity error");
+      } catch (DataAccessException e) {
+        report.addError(music.line(), databaseError(e));
+      }
+    }
+  }
+
+  private static String databaseError(DataAccessException e) {
+    return "Database error: " + e.getClass().getSimpleName();
+  }
+
+  private void write(List<PendingMusic> chunk, UUID createdBy) {
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+    boolean packed = chordStorage == LyricChordStorage.PACKED;
+
+    jdbcTemplate.batchUpdate(
+        INSERT_MUSIC,
+        chunk,
+        chunkSize,
+        (ps, music) -> {
+          ps.setObject(1, music.id());
+          ps.setObject(2, createdBy);
+          ps.setString(3, music.dto().getTitle());
+          ps.setString(4, music.dto().getDescription());
+          ps.setObject(5, music.dto().getReleaseDate());
+          ps.setObject(6, now);
+          ps.setObject(7, now);
+        });
+
+    jdbcTemplate.batchUpdate(
+        INSERT_LYRIC,
+        chunk,
+        chunkSize,
+        (ps, music) -> {
+          ps.setObject(1, music.lyricId());
+          ps.setString(2, music.dto().getLyric().getText());
+          ps.setObject(3, music.id());
+          ps.setBytes(4, packed ? PackedChords.encode(chords(music)) : null);
+        });
+    if (packed) {
+      return;
+    }
+
+    List<PendingChord> chords = new ArrayList<>();
+    for (PendingMusic music : chunk) {
+      for (LyricChordDTO chord : chords(music)) {
+        chords.add(new PendingChord(music.lyricId(), chord));
+      }
+    }
+    jdbcTemplate.batchUpdate(
+        INSERT_LYRIC_CHORD,
+        chords,
+        chunkSize,
+        (ps, chord) -> {
+          ps.setObject(1, chord.lyricId());
+          ps.setLong(2, chord.chord().getChordId());
+          ps.setInt(3, chord.chord().getPosition());
+        });
+  }
+
+  private static List<LyricChordDTO> chords(PendingMusic music) {
+    List<LyricChordDTO> chords = music.dto().getLyric().getChords();
+    return chords != null ? chords : List.of();
+  }
+
+  // Only committed records reach the search indexes
+  private void committed(List<PendingMusic> chunk, ImportReportDTO report) {
+    for (PendingMusic music : chunk) {
+      MusicDTO dto = music.dto();
+      searchIndex.index(music.id(), dto.getTitle(), dto.getDescription(), dto.getLyric().getText());
+      fuzzyTitleIndex.index(music.id(), dto.getTitle());
+    }
+    report.addImported(chunk.size());
+  }
+
+  private record PendingMusic(long line, UUID id, UUID lyricId, MusicDTO dto) {}
+
+  private record PendingChord(UUID lyricId, LyricChordDTO chord) {}
+}
@@ -1,22 +1,56 @@
 package com.oryanend.tom_perfeito_api.services;
 
+import com.oryanend.tom_perfeito_api.config.CacheConfig;
+import com.oryanend.tom_perfeito_api.dto.CursorPageDTO;
 import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicMinDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicPatchDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicSnapshot;
+import com.oryanend.tom_perfeito_api.dto.MusicVersion;
 import com.oryanend.tom_perfeito_api.entities.Chord;
 import com.oryanend.tom_perfeito_api.entities.Lyric;
+import com.oryanend.tom_perfeito_api.entities.LyricChord;
 import com.oryanend.tom_perfeito_api.entities.Music;
 import com.oryanend.tom_perfeito_api.entities.User;
+import com.oryanend.tom_perfeito_api.projections.MusicMinProjection;
+import com.oryanend.tom_perfeito_api.projections.MusicSearchProjection;
 import com.oryanend.tom_perfeito_api.repositories.ChordRepository;
 import com.oryanend.tom_perfeito_api.repositories.MusicRepository;
 import com.oryanend.tom_perfeito_api.services.exceptions.DatabaseException;
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidCursorException;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceNotFoundException;
+import com.oryanend.tom_perfeito_api.services.search.FuzzyTitleIndex;
+import com.oryanend.tom_perfeito_api.services.search.MusicSearchIndex;
+import com.oryanend.tom_perfeito_api.services.search.SearchResult;
+import com.oryanend.tom_perfeito_api.util.AfterCommit;
+import com.oryanend.tom_perfeito_api.util.KeysetCursor;
+import com.oryanend.tom_perfeito_api.util.PackedChords;
 import jakarta.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -27,34 +61,162 @@ public class MusicService {
 
   @Autowired private MusicRepository repository;
   @Autowired private ChordRepository chordRepository;
+  @Autowired private ChordService chordService;
   @Autowired private UserService userService;
   @Autowired private AuthService authService;
+  @Autowired private MusicSearchIndex searchIndex;
+  @Autowired private FuzzyTitleIndex fuzzyTitleIndex;
+  @Autowired private MusicCacheInvalidator cacheInvalidator;
+  @Autowired private CacheManager cacheManager;
+
+  @Value("${lyric.chord-storage}")
+  private LyricChordStorage chordStorage;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void buildSearchIndex() {
+    searchIndex.clear();
+    fuzzyTitleIndex.clear();
+    try (Stream<MusicSearchProjection> documents = repository.streamSearchDocuments()) {
+      documents.forEach(
+          doc -> {
+            searchIndex.index(
+                doc.getId(), doc.getTitle(), doc.getDescription(), doc.getLyricText());
+            fuzzyTitleIndex.index(doc.getId(), doc.getTitle());
+          });
+    }
+  }
 
   @Transactional(readOnly = true)
-  public Page<MusicMinDTO> findAllPaged(String name, Pageable pageable) {
+  public Page<MusicMinDTO> findAllPaged(String name, boolean fuzzy, Pageable pageable) {
     if (name != null && !name.isEmpty()) {
-      return findByNameContaining(name, pageable);
+      return fuzzy ? findByNameSimilar(name, pageable) : findByNameContaining(name, pageable);
     }
 
-    Page<Music> list = repository.findAll(pageable);
+    Page<MusicMinProjection> list = repository.searchAll(pageable);
     return list.map(MusicMinDTO::new);
   }
 
   public Page<MusicMinDTO> findByNameContaining(String name, Pageable pageable) {
-    Page<Music> list = repository.findByTitleContainingIgnoreCase(name, pageable);
+    Page<MusicMinProjection> list = repository.searchByTitle(name, pageable);
     if (list.isEmpty()) {
       throw new ResourceNotFoundException("No musics found with name containing: " + name);
     }
     return list.map(MusicMinDTO::new);
   }
 
+  public Page<MusicMinDTO> findByNameSimilar(String name, Pageable pageable) {
+    SearchResult result = fuzzyTitleIndex.search(name, searchLimit(pageable));
+    Page<MusicMinDTO> page = toRankedPage(result, pageable);
+    if (page.isEmpty()) {
+      throw new ResourceNotFoundException("No musics found with name similar to: " + name);
+    }
+    return page;
+  }
+
+  @Transactional(readOnly = true)
+  public CursorPageDTO<MusicMinDTO> findAllByCursor(String cursor, int size) {
+    int pageSize = CursorPageDTO.limit(size);
+    Limit limit = Limit.of(pageSize + 1);
+
+    List<MusicMinProjection> rows;
+    if (cursor == null || cursor.isEmpty()) {
+      rows = repository.findFirstByCursor(limit);
+    } else {
+      KeysetCursor position = KeysetCursor.decode(cursor);
+      rows = repository.findNextByCursor(position.createdAt(), parseMusicId(position), limit);
+    }
+
+    return CursorPageDTO.of(
+        rows,
+        pageSize,
+        row -> new KeysetCursor(row.getCreatedAt(), row.getId().toString()),
+        MusicMinDTO::new);
+  }
+
+  private static UUID parseMusicId(KeysetCursor position) {
+    try {
+      return UUID.fromString(position.id());
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException("Invalid cursor: " + position.encode());
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public Page<MusicMinDTO> search(String query, Pageable pageable) {
+    SearchResult result = searchIndex.search(query, searchLimit(pageable));
+    return toRankedPage(result, pageable);
+  }
+
+  private static int searchLimit(Pageable pageable) {
+    return (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+  }
+
+  private Page<MusicMinDTO> toRankedPage(SearchResult result, Pageable pageable) {
+    List<UUID> ids =
+        result.ids().stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+    if (ids.isEmpty()) {
+      return new PageImpl<>(List.of(), pageable, result.total());
+    }
+
+    // The index only ranks ids, rows are re-read so stale entries never reach the response
+    Map<UUID, MusicMinProjection> rows =
+        repository.searchByIds(ids).stream()
+            .collect(Collectors.toMap(MusicMinProjection::getId, Function.identity()));
+    List<MusicMinDTO> content =
+        ids.stream().map(rows::get).filter(Objects::nonNull).map(MusicMinDTO::new).toList();
+    return new PageImpl<>(content, pageable, result.total());
+  }
+
+  // Cached as an immutable snapshot, callers turn it into their own DTO
+  @Cacheable(
+      cacheNames = CacheConfig.MUSICS,
+      key = "T(java.util.UUID).fromString(#id)",
+      sync = true)
   @Transactional(readOnly = true)
-  public MusicDTO findById(String id) {
+  public MusicSnapshot findSnapshotById(String id) {
     Music entity =
         repository
-            .findById(UUID.fromString(id))
+            .findWithLyricById(UUID.fromString(id))
             .orElseThrow(() -> new ResourceNotFoundException("Music not found"));
-    return new MusicDTO(entity);
+    return MusicSnapshot.of(entity);
+  }
+
+  // Views leaving the lyric out are built from the cached snapshot when there is one and
+  // otherwise from the music row alone, they are not cached since the full view would miss its
+  // lyric
+  @Transactional(readOnly = true)
+  public MusicDTO findSummaryById(String id) {
+    UUID musicId = UUID.fromString(id);
+    MusicSnapshot cached = cachedSnapshot(musicId);
+    if (cached != null) {
+      return new MusicDTO(cached);
+    }
+
+    return repository
+        .findSummaryById(musicId)
+        .map(MusicDTO::new)
+        .orElseThrow(() -> new ResourceNotFoundException("Music not found"));
+  }
+
+  // Cached snapshots are evicted on every write, so when one is present its version is current
+  @Transactional(readOnly = true)
+  public MusicVersion findVersionById(String id) {
+    UUID musicId = UUID.fromString(id);
+    MusicSnapshot cached = cachedSnapshot(musicId);
+    if (cached != null) {
+      return new MusicVersion(cached.updatedAt(), cached.commentCount());
+    }
+
+    return repository
+        .findVersionById(musicId)
+        .map(version -> new MusicVersion(version.getUpdatedAt(), version.getCommentCount()))
+        .orElseThrow(() -> new ResourceNotFoundException("Music not found"));
+  }
+
+  private MusicSnapshot cachedSnapshot(UUID musicId) {
+    Cache cache = cacheManager.getCache(CacheConfig.MUSICS);
+    return cache != null ? cache.get(musicId, MusicSnapshot.class) : null;
   }
 
   @Transactional
@@ -62,6 +224,7 @@ public class MusicService {
     Music entity = new Music();
     copyDtoToEntity(dto, entity);
     entity = repository.save(entity);
+    indexForSearch(entity);
     return new MusicDTO(entity);
   }
 
@@ -72,6 +235,8 @@ public class MusicService {
       authService.validateSelfOrAdmin(entity.getCreatedBy());
       copyPatchDtoToEntity(dto, entity);
       entity = repository.save(entity);
+      indexForSearch(entity);
+      cacheInvalidator.evict(id);
       return new MusicPatchDTO(entity);
     } catch (EntityNotFoundException e) {
       throw new ResourceNotFoundException("Music not found");
@@ -85,6 +250,12 @@ public class MusicService {
       authService.validateSelfOrAdmin(music.getCreatedBy());
 
       repository.deleteById(id);
+      AfterCommit.run(
+          () -> {
+            searchIndex.remove(id);
+            fuzzyTitleIndex.remove(id);
+          });
+      cacheInvalidator.evict(id);
     } catch (DataIntegrityViolationException e) {
       throw new DatabaseException("Referential integrity error");
     } catch (EntityNotFoundException e) {
@@ -92,7 +263,26 @@ public class MusicService {
     }
   }
 
+  // The indexes only learn about committed rows, the values are taken now since the entity may
+  // change before the transaction ends
+  private void indexForSearch(Music entity) {
+    UUID id = entity.getId();
+    String title = entity.getTitle();
+    String description = entity.getDescription();
+    String lyricText = entity.getLyric() != null ? entity.getLyric().getText() : null;
+    AfterCommit.run(
+        () -> {
+          searchIndex.index(id, title, description, lyricText);
+          fuzzyTitleIndex.index(id, title);
+        });
+  }
+
   private void copyDtoToEntity(MusicDTO dto, Music entity) {
+    // Chords are checked before anything is written, references below never hit a missing row
+    if (dto.getLyric() != null) {
+      chordService.validateChordIds(dto.getLyric().getChords());
+    }
+
     entity.setTitle(dto.getTitle());
     entity.setDescription(dto.getDescription());
     entity.setReleaseDate(dto.getReleaseDate());
@@ -105,9 +295,13 @@ public class MusicService {
       lyric.setText(dto.getLyric().getText());
       lyric.setMusic(entity);
 
-      for (LyricChordDTO c : dto.getLyric().getChords()) {
-        Chord chord = chordRepository.getReferenceById(c.getChordId());
-        lyric.addChord(chord, c.getPosition());
+      if (chordStorage == LyricChordStorage.PACKED) {
+        lyric.setPackedChords(PackedChords.encode(dto.getLyric().getChords()));
+      } else {
+        for (LyricChordDTO c : dto.getLyric().getChords()) {
+          Chord chord = chordRepository.getReferenceById(c.getChordId());
+          lyric.addChord(chord, c.getPosition());
+        }
       }
 
       entity.setLyric(lyric);
@@ -115,6 +309,12 @@ public class MusicService {
   }
 
   private void copyPatchDtoToEntity(MusicPatchDTO dto, Music entity) {
+    if (dto.getLyric() != null && dto.getLyric().getChords() != null) {
+      chordService.validateChordIds(dto.getLyric().getChords());
+    }
+
+    // Lyric only changes leave the music row clean, the version still has to move
+    entity.setUpdatedAt(Instant.now());
     if (dto.getTitle() != null) {
       entity.setTitle(dto.getTitle());
     }
@@ -135,12 +335,82 @@ public class MusicService {
         lyric.setText(dto.getLyric().getText());
       }
       if (dto.getLyric().getChords() != null) {
-        lyric.getChords().clear();
-        for (LyricChordDTO c : dto.getLyric().getChords()) {
-          Chord chord = chordRepository.getReferenceById(c.getChordId());
-          lyric.addChord(chord, c.getPosition());
+        if (chordStorage == LyricChordStorage.PACKED) {
+          lyric.getChords().clear();
+          lyric.setPackedChords(PackedChords.encode(dto.getLyric().getChords()));
+        } else {
+          // Packed markers are unpacked into rows by their first edit under ROWS storage
+          lyric.setPackedChords(null);
+          mergeChords(lyric, dto.getLyric().getChords());
         }
       }
     }
   }
+
+  // Diffs the incoming markers against the stored (position, chordId) pairs. Unchanged markers are
+  // left alone, stored rows are reused for changed ones, so a moved or swapped chord is a single
+  // UPDATE, and only the surplus is inserted or deleted.
+  private void mergeChords(Lyric lyric, List<LyricChordDTO> incoming) {
+    Map<ChordMarker, Deque<LyricChord>> stored = new HashMap<>();
+    for (LyricChord lc : lyric.getChords()) {
+      stored
+          .computeIfAbsent(
+              new ChordMarker(lc.getPosition(), lc.getChord().getId()), k -> new ArrayDeque<>())
+          .add(lc);
+    }
+
+    List<LyricChordDTO> changed = new ArrayList<>();
+    for (LyricChordDTO c : incoming) {
+      Deque<LyricChord> same = stored.get(new ChordMarker(c.getPosition(), c.getChordId()));
+      if (same != null && !same.isEmpty()) {
+        same.poll();
+      } else {
+        changed.add(c);
+      }
+    }
+
+    // Rows left over are free to take a new value, the ones at the same position first
+    Map<Integer, Deque<LyricChord>> free = new LinkedHashMap<>();
+    for (Deque<LyricChord> rows : stored.values()) {
+      for (LyricChord lc : rows) {
+        free.computeIfAbsent(lc.getPosition(), k -> new ArrayDeque<>()).add(lc);
+      }
+    }
+
+    List<LyricChordDTO> moved = new ArrayList<>();
+    for (LyricChordDTO c : changed) {
+      LyricChord row = poll(free, c.getPosition());
+      if (row != null) {
+        row.setChord(chordRepository.getReferenceById(c.getChordId()));
+      } else {
+        moved.add(c);
+      }
+    }
+
+    for (LyricChordDTO c : moved) {
+      LyricChord row = poll(free, null);
+      Chord chord = chordRepository.getReferenceById(c.getChordId());
+      if (row != null) {
+        row.setPosition(c.getPosition());
+        row.setChord(chord);
+      } else {
+        lyric.addChord(chord, c.getPosition());
+      }
+    }
+
+    for (Deque<LyricChord> rows : free.values()) {
+      lyric.getChords().removeAll(rows);
+    }
+  }
+
+  // Takes a free row at `position`, or any free row when `position` is null
+  private static LyricChord poll(Map<Integer, Deque<LyricChord>> free, Integer position) {
+    Deque<LyricChord> rows =
+        position != null
+            ? free.get(position)
+            : free.values().stream().filter(r -> !r.isEmpty()).findFirst().orElse(null);
+    return rows != null ? rows.poll() : null;
+  }
+
+  private record ChordMarker(Integer position, Long chordId) {}
 }
@@ -5,8 +5,15 @@ import com.oryanend.tom_perfeito_api.entities.Chord;
 import com.oryanend.tom_perfeito_api.entities.Note;
 import com.oryanend.tom_perfeito_api.repositories.ChordRepository;
 import com.oryanend.tom_perfeito_api.repositories.NoteRepository;
+import com.oryanend.tom_perfeito_api.services.exceptions.ResourceNotFoundException;
+import com.oryanend.tom_perfeito_api.services.harmony.NoteRegistry;
+import com.oryanend.tom_perfeito_api.util.AfterCommit;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +23,14 @@ public class NoteService {
 
   @Autowired private ChordRepository chordRepository;
 
+  @Autowired private NoteRegistry noteRegistry;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void buildNoteRegistry() {
+    noteRegistry.rebuild(repository.findAll());
+  }
+
   @Transactional(readOnly = true)
   public List<NoteDTO> findAll() {
     List<Note> list = repository.findAll();
@@ -26,18 +41,28 @@ public class NoteService {
   public NoteDTO insert(NoteDTO dto) {
     Note entity = new Note();
     copyDtoToEntity(dto, entity);
-    entity = repository.save(entity);
-    return new NoteDTO(entity);
+    Note saved = repository.save(entity);
+    AfterCommit.run(() -> noteRegistry.put(saved));
+    return new NoteDTO(saved);
   }
 
+  // Referenced chords are read in one query, any unknown id fails the whole insert
   private void copyDtoToEntity(NoteDTO dto, Note entity) {
     entity.setName(dto.getName());
     entity.setAccidental(dto.getAccidental());
 
-    entity.getChords().clear();
+    Set<Long> ids = new TreeSet<>();
     for (Chord chordDTO : dto.getChords()) {
-      Chord chord = chordRepository.getReferenceById(chordDTO.getId());
+      ids.add(chordDTO.getId());
+    }
+
+    entity.getChords().clear();
+    for (Chord chord : chordRepository.findAllById(ids)) {
+      ids.remove(chord.getId());
       entity.getChords().add(chord);
     }
+    if (!ids.isEmpty()) {
+      throw new ResourceNotFoundException("Chords not found: " + ids);
+    }
   }
 }
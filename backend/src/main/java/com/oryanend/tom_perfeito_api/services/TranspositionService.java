@@ -0,0 +1,78 @@
+package com.oryanend.tom_perfeito_api.services;
+
+import com.oryanend.tom_perfeito_api.config.CacheConfig;
+import com.oryanend.tom_perfeito_api.dto.MusicDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicSnapshot;
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordEngine;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordIndex;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordSymbol;
+import com.oryanend.tom_perfeito_api.services.harmony.PitchClasses;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+@Service
+public class TranspositionService {
+
+  @Autowired private MusicService musicService;
+  @Autowired private ChordIndex chordIndex;
+  @Autowired private ChordEngine chordEngine;
+  @Autowired private CacheManager cacheManager;
+
+  // Renderings are keyed by the music version, an edit or a comment simply makes the old ones
+  // unreachable
+  public MusicDTO findTransposed(String id, int semitones) {
+    MusicSnapshot music = musicService.findSnapshotById(id);
+    int offset = Math.floorMod(semitones, PitchClasses.COUNT);
+    if (offset == 0) {
+      return new MusicDTO(music);
+    }
+
+    Cache cache = cacheManager.getCache(CacheConfig.TRANSPOSITIONS);
+    TranspositionKey key =
+        new TranspositionKey(music.id(), music.updatedAt(), music.commentCount(), offset);
+    return new MusicDTO(cache.get(key, () -> transpose(music, offset)));
+  }
+
+  private MusicSnapshot transpose(MusicSnapshot music, int offset) {
+    if (music.chords() == null) {
+      return music;
+    }
+    List<MusicSnapshot.Marker> chords = new ArrayList<>(music.chords().size());
+    for (MusicSnapshot.Marker chord : music.chords()) {
+      chords.add(transpose(chord, offset));
+    }
+    return music.withChords(chords);
+  }
+
+  // Shifts the stored chord's root and keeps its type, so Asus4 stays a sus4 rather than turning
+  // into the Dsus2 its notes also spell. The chord id is the catalog entry with that root, type and
+  // notes, left empty when there is none; the symbol still names it.
+  private MusicSnapshot.Marker transpose(MusicSnapshot.Marker chord, int offset) {
+    int mask = chordIndex.maskOf(chord.chordId());
+    if (mask < 0) {
+      return chord;
+    }
+
+    ChordType type = chordIndex.typeOf(chord.chordId());
+    int shifted = PitchClasses.transpose(mask, offset);
+    int root = chordIndex.rootOf(chord.chordId());
+    if (root < 0) {
+      long catalogId = chordIndex.findByMask(type, shifted);
+      return new MusicSnapshot.Marker(catalogId >= 0 ? catalogId : null, chord.position(), null);
+    }
+
+    int shiftedRoot = (root + offset) % PitchClasses.COUNT;
+    long catalogId = chordIndex.findBySpelling(shiftedRoot, type, shifted);
+    String symbol = chordEngine.format(new ChordSymbol(shiftedRoot, type, -1));
+    return new MusicSnapshot.Marker(catalogId >= 0 ? catalogId : null, chord.position(), symbol);
+  }
+
+  private record TranspositionKey(UUID musicId, Instant updatedAt, long commentCount, int offset) {}
+}
@@ -13,6 +13,7 @@ import com.oryanend.tom_perfeito_api.repositories.UserRepository;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceAlreadyExistsException;
 import com.oryanend.tom_perfeito_api.services.exceptions.ResourceNotFoundException;
 import com.oryanend.tom_perfeito_api.util.CustomUserUtil;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -63,18 +64,18 @@ public class UserService implements UserDetailsService {
   }
 
   @Transactional(readOnly = true)
-  public UserDTO getMe() {
+  public UserDTO getMe(FieldSelection selection) {
     User entity = authenticated();
-    return new UserDTO(entity);
+    return new UserDTO(entity, selection);
   }
 
   @Transactional(readOnly = true)
-  public UserDTO findById(String id) {
+  public UserDTO findById(String id, FieldSelection selection) {
     User entity =
         repository
             .findById(UUID.fromString(id))
             .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-    return new UserDTO(entity);
+    return new UserDTO(entity, selection);
   }
 
   @Transactional
@@ -0,0 +1,7 @@
+package com.oryanend.tom_perfeito_api.services.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
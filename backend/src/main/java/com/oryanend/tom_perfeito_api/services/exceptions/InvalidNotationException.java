@@ -0,0 +1,7 @@
+package com.oryanend.tom_perfeito_api.services.exceptions;
+
+public class InvalidNotationException extends RuntimeException {
+  public InvalidNotationException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.oryanend.tom_perfeito_api.services.exceptions;
+
+public class ThreadTooDeepException extends RuntimeException {
+  public ThreadTooDeepException(int maxDepth) {
+    super("Replies cannot be nested more than " + maxDepth + " levels deep");
+  }
+}
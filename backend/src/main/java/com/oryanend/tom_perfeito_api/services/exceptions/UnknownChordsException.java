@@ -0,0 +1,16 @@
+package com.oryanend.tom_perfeito_api.services.exceptions;
+
+import java.util.List;
+
+public class UnknownChordsException extends RuntimeException {
+  private final List<Long> ids;
+
+  public UnknownChordsException(List<Long> ids) {
+    super("Chords not found: " + ids);
+    this.ids = ids;
+  }
+
+  public List<Long> getIds() {
+    return ids;
+  }
+}
@@ -0,0 +1,145 @@
+package com.oryanend.tom_perfeito_api.services.harmony;
+
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidNotationException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+// Chord symbols and pitch-class sets in both directions. Every (root, type) pair is spelled out
+// once at startup: `masks` turns a parsed symbol into its notes, and `chordsByMask`, one slot per
+// possible 12-bit set, turns a set of notes back into every chord it spells.
+@Component
+public class ChordEngine {
+
+  private static final Map<ChordType, int[]> INTERVALS = new EnumMap<>(ChordType.class);
+  private static final Map<ChordType, String> SUFFIXES = new EnumMap<>(ChordType.class);
+  private static final Map<String, ChordType> QUALITIES = new LinkedHashMap<>();
+
+  static {
+    define(ChordType.MAJOR, "", new int[] {0, 4, 7}, "M", "maj");
+    define(ChordType.MINOR, "m", new int[] {0, 3, 7}, "min", "-");
+    define(ChordType.DIMINISHED, "dim", new int[] {0, 3, 6}, "°", "o");
+    define(ChordType.AUGMENTED, "aug", new int[] {0, 4, 8}, "+");
+    define(ChordType.SUSPENDED2, "sus2", new int[] {0, 2, 7});
+    define(ChordType.SUSPENDED4, "sus4", new int[] {0, 5, 7}, "sus");
+    define(ChordType.DOMINANT7, "7", new int[] {0, 4, 7, 10}, "dom7");
+    define(ChordType.MAJOR7, "maj7", new int[] {0, 4, 7, 11}, "M7", "Δ7", "Δ");
+    define(ChordType.MINOR7, "m7", new int[] {0, 3, 7, 10}, "min7", "-7");
+    define(ChordType.HALF_DIMINISHED7, "m7b5", new int[] {0, 3, 6, 10}, "min7b5", "ø", "ø7");
+    define(ChordType.DIMINISHED7, "dim7", new int[] {0, 3, 6, 9}, "°7", "o7");
+  }
+
+  private static final ChordSymbol[] NONE = new ChordSymbol[0];
+
+  private final int[][] masks = new int[PitchClasses.COUNT][ChordType.values().length];
+  private final ChordSymbol[][] chordsByMask = new ChordSymbol[PitchClasses.ALL + 1][];
+
+  public ChordEngine() {
+    List<List<ChordSymbol>> spelled = new ArrayList<>(PitchClasses.ALL + 1);
+    for (int mask = 0; mask <= PitchClasses.ALL; mask++) {
+      spelled.add(null);
+    }
+
+    for (int root = 0; root < PitchClasses.COUNT; root++) {
+      for (ChordType type : ChordType.values()) {
+        int mask = 0;
+        for (int interval : INTERVALS.get(type)) {
+          mask |= 1 << ((root + interval) % PitchClasses.COUNT);
+        }
+        masks[root][type.ordinal()] = mask;
+
+        if (spelled.get(mask) == null) {
+          spelled.set(mask, new ArrayList<>(1));
+        }
+        spelled.get(mask).add(new ChordSymbol(root, type, -1));
+      }
+    }
+
+    for (int mask = 0; mask <= PitchClasses.ALL; mask++) {
+      List<ChordSymbol> chords = spelled.get(mask);
+      chordsByMask[mask] = chords == null ? NONE : chords.toArray(NONE);
+    }
+  }
+
+  // Parses symbols such as "C#m7", "Dbmaj7" or "F/A"
+  public ChordSymbol parse(String symbol) {
+    String text = symbol == null ? "" : symbol.trim();
+
+    int rootLength = PitchClasses.spellingLength(text, 0);
+    if (rootLength == 0) {
+      throw new InvalidNotationException("Invalid chord symbol: " + symbol);
+    }
+    int root = PitchClasses.parseAt(text, 0);
+
+    int slash = text.indexOf('/', rootLength);
+    String quality = slash < 0 ? text.substring(rootLength) : text.substring(rootLength, slash);
+    ChordType type = QUALITIES.get(quality);
+    if (type == null) {
+      throw new InvalidNotationException("Invalid chord symbol: " + symbol);
+    }
+
+    int bass = -1;
+    if (slash >= 0) {
+      bass = PitchClasses.parse(text.substring(slash + 1));
+      if (bass < 0) {
+        throw new InvalidNotationException("Invalid chord symbol: " + symbol);
+      }
+    }
+    return new ChordSymbol(root, type, bass);
+  }
+
+  // Pitch classes sounded by the chord, the bass included
+  public int mask(ChordSymbol chord) {
+    int mask = masks[chord.root()][chord.type().ordinal()];
+    return chord.hasBass() ? mask | (1 << chord.bass()) : mask;
+  }
+
+  // Every (root, type) whose notes are exactly the given pitch classes
+  public List<ChordSymbol> identify(int mask) {
+    if (mask < 0 || mask > PitchClasses.ALL) {
+      return List.of();
+    }
+    return List.of(chordsByMask[mask]);
+  }
+
+  // Root of the `type` chord spelling exactly `mask`, -1 when there is none. Symmetric chords
+  // (augmented, diminished seventh) spell the same notes from several roots, the one `name` starts
+  // with wins and the lowest pitch class otherwise.
+  public int rootOf(ChordType type, int mask, String name) {
+    int named =
+        name != null && PitchClasses.spellingLength(name, 0) > 0
+            ? PitchClasses.parseAt(name, 0)
+            : -1;
+    int root = -1;
+    for (ChordSymbol chord : identify(mask)) {
+      if (chord.type() != type) {
+        continue;
+      }
+      if (chord.root() == named) {
+        return named;
+      }
+      if (root < 0) {
+        root = chord.root();
+      }
+    }
+    return root;
+  }
+
+  public String format(ChordSymbol chord) {
+    String symbol = PitchClasses.name(chord.root()) + SUFFIXES.get(chord.type());
+    return chord.hasBass() ? symbol + "/" + PitchClasses.name(chord.bass()) : symbol;
+  }
+
+  private static void define(ChordType type, String suffix, int[] intervals, String... aliases) {
+    INTERVALS.put(type, intervals);
+    SUFFIXES.put(type, suffix);
+    QUALITIES.put(suffix, type);
+    for (String alias : aliases) {
+      QUALITIES.put(alias, type);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.oryanend.tom_perfeito_api.services.harmony;
+
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Pitch-class masks of every stored chord with notes, kept in parallel arrays ordered by chord id
+// together with the chord type and the root its notes are spelled from. Reads scan an immutable
+// snapshot without locking or allocating, writes replace the snapshot. Chords without notes are
+// left out, they have no pitch classes to match.
+@Component
+public class ChordIndex {
+
+  @Autowired private ChordEngine chordEngine;
+
+  private volatile Snapshot snapshot =
+      new Snapshot(new long[0], new int[0], new String[0], new ChordType[0], new int[0]);
+
+  public synchronized void rebuild(Map<Long, Entry> chords) {
+    TreeMap<Long, Entry> sorted = new TreeMap<>(chords);
+    int size = sorted.size();
+    long[] ids = new long[size];
+    int[] masks = new int[size];
+    String[] names = new String[size];
+    ChordType[] types = new ChordType[size];
+    int[] roots = new int[size];
+
+    int i = 0;
+    for (Map.Entry<Long, Entry> chord : sorted.entrySet()) {
+      Entry entry = chord.getValue();
+      ids[i] = chord.getKey();
+      masks[i] = entry.mask();
+      names[i] = normalize(entry.name());
+      types[i] = entry.type();
+      roots[i] = chordEngine.rootOf(entry.type(), entry.mask(), entry.name());
+      i++;
+    }
+    snapshot = new Snapshot(ids, masks, names, types, roots);
+  }
+
+  public synchronized void put(long id, Entry entry) {
+    Snapshot current = snapshot;
+    int root = chordEngine.rootOf(entry.type(), entry.mask(), entry.name());
+    int i = Arrays.binarySearch(current.ids, id);
+    if (i >= 0) {
+      int[] masks = current.masks.clone();
+      String[] names = current.names.clone();
+      ChordType[] types = current.types.clone();
+      int[] roots = current.roots.clone();
+      masks[i] = entry.mask();
+      names[i] = normalize(entry.name());
+      types[i] = entry.type();
+      roots[i] = root;
+      snapshot = new Snapshot(current.ids, masks, names, types, roots);
+      return;
+    }
+
+    int at = -i - 1;
+    int size = current.ids.length;
+    long[] ids = insertAt(current.ids, at, id);
+    int[] masks = insertAt(current.masks, at, entry.mask());
+    String[] names = insertAt(current.names, at, normalize(entry.name()), new String[size + 1]);
+    ChordType[] types = insertAt(current.types, at, entry.type(), new ChordType[size + 1]);
+    int[] roots = insertAt(current.roots, at, root);
+    snapshot = new Snapshot(ids, masks, names, types, roots);
+  }
+
+  private static long[] insertAt(long[] values, int at, long value) {
+    long[] copy = new long[values.length + 1];
+    System.arraycopy(values, 0, copy, 0, at);
+    copy[at] = value;
+    System.arraycopy(values, at, copy, at + 1, values.length - at);
+    return copy;
+  }
+
+  private static int[] insertAt(int[] values, int at, int value) {
+    int[] copy = new int[values.length + 1];
+    System.arraycopy(values, 0, copy, 0, at);
+    copy[at] = value;
+    System.arraycopy(values, at, copy, at + 1, values.length - at);
+    return copy;
+  }
+
+  private static <T> T[] insertAt(T[] values, int at, T value, T[] copy) {
+    System.arraycopy(values, 0, copy, 0, at);
+    copy[at] = value;
+    System.arraycopy(values, at, copy, at + 1, values.length - at);
+    return copy;
+  }
+
+  public int size() {
+    return snapshot.ids.length;
+  }
+
+  // Mask of the chord, -1 when it is not indexed
+  public int maskOf(long id) {
+    Snapshot current = snapshot;
+    int i = Arrays.binarySearch(current.ids, id);
+    return i >= 0 ? current.masks[i] : -1;
+  }
+
+  // Type of the chord, null when it is not indexed
+  public ChordType typeOf(long id) {
+    Snapshot current = snapshot;
+    int i = Arrays.binarySearch(current.ids, id);
+    return i >= 0 ? current.types[i] : null;
+  }
+
+  // Root pitch class of the chord, -1 when it is not indexed or its notes spell no chord of its
+  // type
+  public int rootOf(long id) {
+    Snapshot current = snapshot;
+    int i = Arrays.binarySearch(current.ids, id);
+    return i >= 0 ? current.roots[i] : -1;
+  }
+
+  // Lowest id of a `type` chord built on `root` and spelling exactly `mask`, -1 when the catalog
+  // has none. A chord sharing the notes under another name (Asus4 and Dsus2) never stands in.
+  public long findBySpelling(int root, ChordType type, int mask) {
+    Snapshot current = snapshot;
+    for (int i = 0; i < current.masks.length; i++) {
+      if (current.roots[i] == root && current.types[i] == type && current.masks[i] == mask) {
+        return current.ids[i];
+      }
+    }
+    return -1;
+  }
+
+  // Lowest id of a chord of `type` spelling exactly `mask`, -1 when the catalog has none. For
+  // chords whose notes spell no chord of their own type, so they have no root to go by.
+  public long findByMask(ChordType type, int mask) {
+    Snapshot current = snapshot;
+    for (int i = 0; i < current.masks.length; i++) {
+      if (current.types[i] == type && current.masks[i] == mask) {
+        return current.ids[i];
+      }
+    }
+    return -1;
+  }
+
+  // Hands the ids of the chords whose mask relates to `queryMask` as `match` asks to `hits`, in id
+  // order, and returns how many there were. A non-null `name` additionally requires the chord name
+  // to contain it, ignoring case. The scan itself allocates nothing, collecting the hits is left
+  // to the caller.
+  public int search(int queryMask, ChordMatch match, String name, LongConsumer hits) {
+    Snapshot current = snapshot;
+    String fragment = name != null ? normalize(name) : null;
+
+    int count = 0;
+    for (int i = 0; i < current.masks.length; i++) {
+      if (match.matches(current.masks[i], queryMask)
+          && (fragment == null || current.names[i].contains(fragment))) {
+        hits.accept(current.ids[i]);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  public record Entry(String name, ChordType type, int mask) {}
+
+  private record Snapshot(
+      long[] ids, int[] masks, String[] names, ChordType[] types, int[] roots) {}
+}
@@ -0,0 +1,19 @@
+package com.oryanend.tom_perfeito_api.services.harmony;
+
+// How the notes of a stored chord relate to the notes of a search
+public enum ChordMatch {
+  // Same pitch classes
+  EXACT,
+  // Chord holds every searched note, possibly more
+  SUPERSET,
+  // Chord only uses searched notes
+  SUBSET;
+
+  boolean matches(int chordMask, int queryMask) {
+    return switch (this) {
+      case EXACT -> chordMask == queryMask;
+      case SUPERSET -> (chordMask & queryMask) == queryMask;
+      case SUBSET -> (chordMask & ~queryMask) == 0;
+    };
+  }
+}
@@ -0,0 +1,11 @@
+package com.oryanend.tom_perfeito_api.services.harmony;
+
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+
+// A chord as root pitch class plus quality, with an optional bass note (-1 when there is none)
+public record ChordSymbol(int root, ChordType type, int bass) {
+
+  public boolean hasBass() {
+    return bass >= 0;
+  }
+}
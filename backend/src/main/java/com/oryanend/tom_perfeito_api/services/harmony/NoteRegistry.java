@@ -0,0 +1,46 @@
+package com.oryanend.tom_perfeito_api.services.harmony;
+
+import com.oryanend.tom_perfeito_api.entities.Note;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+// Every stored note, loaded once at startup. Notes are a tiny, practically immutable table, so
+// chords resolve them here instead of reading tb_note. Entries are detached copies that only carry
+// id, name and accidental, they must never be modified. Only committed notes are registered, writes
+// are serialized so a rebuild cannot drop a concurrent put.
+@Component
+public class NoteRegistry {
+
+  private volatile Map<Long, Note> notes = Map.of();
+
+  public synchronized void rebuild(Collection<Note> rows) {
+    Map<Long, Note> copies = new HashMap<>();
+    for (Note row : rows) {
+      copies.put(row.getId(), copy(row));
+    }
+    notes = Map.copyOf(copies);
+  }
+
+  public synchronized void put(Note row) {
+    Map<Long, Note> copies = new HashMap<>(notes);
+    copies.put(row.getId(), copy(row));
+    notes = Map.copyOf(copies);
+  }
+
+  // The note with this id, null when it is not registered
+  public Note get(Long id) {
+    return notes.get(id);
+  }
+
+  public int size() {
+    return notes.size();
+  }
+
+  private static Note copy(Note row) {
+    Note note = new Note(row.getName(), row.getAccidental());
+    note.setId(row.getId());
+    return note;
+  }
+}
@@ -0,0 +1,102 @@
+package com.oryanend.tom_perfeito_api.services.harmony;
+
+import com.oryanend.tom_perfeito_api.entities.Note;
+import com.oryanend.tom_perfeito_api.entities.enums.Accidental;
+import com.oryanend.tom_perfeito_api.entities.enums.NoteName;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Notes reduced to one of the 12 pitch classes (C = 0 ... B = 11). A set of notes becomes a 12-bit
+// mask, bit `p` set when pitch class `p` is present, so set comparisons are plain bitwise tests.
+public final class PitchClasses {
+
+  public static final int COUNT = 12;
+  public static final int ALL = (1 << COUNT) - 1;
+
+  private static final int[] NATURALS = {0, 2, 4, 5, 7, 9, 11};
+  private static final String[] NAMES = {
+    "C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"
+  };
+
+  private PitchClasses() {}
+
+  public static int of(NoteName name, Accidental accidental) {
+    int pitchClass = NATURALS[name.ordinal()];
+    if (accidental == Accidental.SHARP) {
+      pitchClass++;
+    } else if (accidental == Accidental.FLAT) {
+      pitchClass--;
+    }
+    return Math.floorMod(pitchClass, COUNT);
+  }
+
+  // Sharp spelling, the one the seeded notes use
+  public static String name(int pitchClass) {
+    return NAMES[pitchClass];
+  }
+
+  // Moves every pitch class of `mask` up by `semitones`, wrapping around the octave
+  public static int transpose(int mask, int semitones) {
+    int shift = Math.floorMod(semitones, COUNT);
+    return ((mask << shift) | (mask >>> (COUNT - shift))) & ALL;
+  }
+
+  // Names of the pitch classes in `mask`, going up from `from`
+  public static List<String> names(int mask, int from) {
+    List<String> names = new ArrayList<>(Integer.bitCount(mask));
+    for (int i = 0; i < COUNT; i++) {
+      int pitchClass = (from + i) % COUNT;
+      if ((mask & (1 << pitchClass)) != 0) {
+        names.add(NAMES[pitchClass]);
+      }
+    }
+    return names;
+  }
+
+  public static int mask(Collection<Note> notes) {
+    int mask = 0;
+    for (Note note : notes) {
+      mask |= 1 << of(note.getName(), note.getAccidental());
+    }
+    return mask;
+  }
+
+  // Parses a note spelled as a letter followed by any number of `#` or `b` ("C", "F#", "Bb"),
+  // returning -1 when the text is not a note
+  public static int parse(String text) {
+    if (text == null) {
+      return -1;
+    }
+    String note = text.trim();
+    return spellingLength(note, 0) == note.length() && !note.isEmpty() ? parseAt(note, 0) : -1;
+  }
+
+  // Length of the note spelled at `start`, 0 when there is none
+  static int spellingLength(String text, int start) {
+    if (start >= text.length()
+        || "CDEFGAB".indexOf(Character.toUpperCase(text.charAt(start))) < 0) {
+      return 0;
+    }
+    int end = start + 1;
+    while (end < text.length() && isAccidental(text.charAt(end))) {
+      end++;
+    }
+    return end - start;
+  }
+
+  // Pitch class of the note spelled at `start`, which must have a non zero spelling length
+  static int parseAt(String text, int start) {
+    int pitchClass = NATURALS["CDEFGAB".indexOf(Character.toUpperCase(text.charAt(start)))];
+    int end = start + spellingLength(text, start);
+    for (int i = start + 1; i < end; i++) {
+      char c = text.charAt(i);
+      pitchClass += (c == '#' || c == '♯') ? 1 : -1;
+    }
+    return Math.floorMod(pitchClass, COUNT);
+  }
+
+  private static boolean isAccidental(char c) {
+    return c == '#' || c == '♯' || c == 'b' || c == '♭';
+  }
+}
@@ -0,0 +1,245 @@
+package com.oryanend.tom_perfeito_api.services.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+// Typo tolerant title lookup. Accent-folded title words are kept in a BK-tree, so finding every
+// word within edit distance k of a query word only visits the subtrees allowed by the triangle
+// inequality instead of comparing against the whole catalog.
+@Component
+public class FuzzyTitleIndex {
+
+  // Words left without titles stay in the tree until they outnumber the live ones, past this floor
+  private static final int COMPACTION_THRESHOLD = 1024;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<UUID, String> titles = new HashMap<>();
+  private final Map<UUID, Set<String>> titleWords = new HashMap<>();
+  private Node root;
+  private int nodes;
+  private int liveNodes;
+
+  public void index(UUID id, String title) {
+    String normalized = TextNormalizer.normalize(title);
+    Set<String> words = new LinkedHashSet<>(TextNormalizer.tokenize(title));
+
+    lock.writeLock().lock();
+    try {
+      unindex(id);
+      titles.put(id, normalized);
+      titleWords.put(id, words);
+      for (String word : words) {
+        attach(word, id);
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(UUID id) {
+    lock.writeLock().lock();
+    try {
+      unindex(id);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      titles.clear();
+      titleWords.clear();
+      root = null;
+      nodes = 0;
+      liveNodes = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Every query word must be within its allowed edit distance of some title word. Titles with the
+  // smallest total distance come first.
+  public SearchResult search(String query, int limit) {
+    List<String> words = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(query)));
+    if (words.isEmpty() || limit <= 0) {
+      return new SearchResult(List.of(), 0);
+    }
+
+    lock.readLock().lock();
+    try {
+      Map<UUID, Integer> distances = null;
+      for (String word : words) {
+        Map<UUID, Integer> matches = match(word);
+        if (distances == null) {
+          distances = matches;
+        } else {
+          distances.keySet().retainAll(matches.keySet());
+          distances.replaceAll((id, distance) -> distance + matches.get(id));
+        }
+        if (distances.isEmpty()) {
+          return new SearchResult(List.of(), 0);
+        }
+      }
+
+      Map<UUID, Integer> totals = distances;
+      List<UUID> ranked = new ArrayList<>(totals.keySet());
+      ranked.sort(Comparator.comparing(totals::get).thenComparing(titles::get));
+      return new SearchResult(ranked.subList(0, Math.min(limit, ranked.size())), ranked.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Allowed typos grow with the word length, short words must match exactly
+  static int maxDistance(String word) {
+    if (word.length() <= 3) return 0;
+    if (word.length() <= 6) return 1;
+    return 2;
+  }
+
+  private Map<UUID, Integer> match(String word) {
+    Map<UUID, Integer> matches = new HashMap<>();
+    if (root == null) {
+      return matches;
+    }
+
+    int maxDistance = maxDistance(word);
+    Deque<Node> pending = new ArrayDeque<>();
+    pending.push(root);
+    while (!pending.isEmpty()) {
+      Node node = pending.pop();
+      int distance = Levenshtein.distance(word, node.word);
+      if (distance <= maxDistance) {
+        for (UUID id : node.docs) {
+          matches.merge(id, distance, Math::min);
+        }
+      }
+      for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+        if (Math.abs(child.getKey() - distance) <= maxDistance) {
+          pending.push(child.getValue());
+        }
+      }
+    }
+    return matches;
+  }
+
+  private void attach(String word, UUID id) {
+    Node node = insert(word);
+    if (node.docs.isEmpty()) {
+      liveNodes++;
+    }
+    node.docs.add(id);
+  }
+
+  private Node insert(String word) {
+    if (root == null) {
+      root = new Node(word);
+      nodes++;
+      return root;
+    }
+    Node node = root;
+    while (true) {
+      int distance = Levenshtein.distance(word, node.word);
+      if (distance == 0) {
+        return node;
+      }
+      Node child = node.children.get(distance);
+      if (child == null) {
+        child = new Node(word);
+        node.children.put(distance, child);
+        nodes++;
+        return child;
+      }
+      node = child;
+    }
+  }
+
+  // Words are not detached from the tree one by one, their document sets simply become empty
+  private void unindex(UUID id) {
+    titles.remove(id);
+    Set<String> words = titleWords.remove(id);
+    if (words == null) {
+      return;
+    }
+    for (String word : words) {
+      Node node = insert(word);
+      if (node.docs.remove(id) && node.docs.isEmpty()) {
+        liveNodes--;
+      }
+    }
+  }
+
+  // A BK-tree has no cheap node removal, once empty words outnumber the live ones the tree is
+  // rebuilt from the indexed titles alone
+  private void compactIfNeeded() {
+    int dead = nodes - liveNodes;
+    if (dead < COMPACTION_THRESHOLD || dead <= liveNodes) {
+      return;
+    }
+    root = null;
+    nodes = 0;
+    liveNodes = 0;
+    titleWords.forEach(
+        (id, words) -> {
+          for (String word : words) {
+            attach(word, id);
+          }
+        });
+  }
+
+  private static final class Node {
+    private final String word;
+    private final Map<Integer, Node> children = new HashMap<>(4);
+    private final Set<UUID> docs = new HashSet<>(2);
+
+    Node(String word) {
+      this.word = word;
+    }
+  }
+
+  static final class Levenshtein {
+
+    private Levenshtein() {}
+
+    static int distance(String a, String b) {
+      if (a.equals(b)) return 0;
+      if (a.isEmpty()) return b.length();
+      if (b.isEmpty()) return a.length();
+
+      int[] previous = new int[b.length() + 1];
+      int[] current = new int[b.length() + 1];
+      for (int j = 0; j <= b.length(); j++) {
+        previous[j] = j;
+      }
+      for (int i = 1; i <= a.length(); i++) {
+        current[0] = i;
+        char ca = a.charAt(i - 1);
+        for (int j = 1; j <= b.length(); j++) {
+          int cost = ca == b.charAt(j - 1) ? 0 : 1;
+          current[j] =
+              Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+        }
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+      }
+      return previous[b.length()];
+    }
+  }
+}
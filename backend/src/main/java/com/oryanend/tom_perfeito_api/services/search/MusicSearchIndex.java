@@ -0,0 +1,344 @@
+package com.oryanend.tom_perfeito_api.services.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Component;
+
+// Inverted index over title, description and lyric text. Every normalized token points to a
+// sorted posting list of documents, and every token of three characters or more is also
+// reachable through its trigrams, so partial words ("imag") expand to indexed tokens ("imagine")
+// without scanning the vocabulary.
+@Component
+public class MusicSearchIndex {
+
+  private static final byte TITLE = 1;
+  private static final byte DESCRIPTION = 2;
+  private static final byte LYRIC = 4;
+
+  private static final float TITLE_WEIGHT = 3.0f;
+  private static final float DESCRIPTION_WEIGHT = 1.5f;
+  private static final float LYRIC_WEIGHT = 1.0f;
+
+  private static final float EXACT_MATCH = 1.0f;
+  private static final float PREFIX_MATCH = 0.6f;
+  private static final float INFIX_MATCH = 0.4f;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<UUID, Integer> docIds = new HashMap<>();
+  private final List<UUID> docs = new ArrayList<>();
+  private final List<String[]> docTerms = new ArrayList<>();
+  private final List<Integer> freeDocIds = new ArrayList<>();
+
+  private final Map<String, Postings> postings = new HashMap<>();
+  private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+  public void index(UUID id, String title, String description, String lyricText) {
+    Map<String, Byte> fields = new LinkedHashMap<>();
+    addTokens(fields, title, TITLE);
+    addTokens(fields, description, DESCRIPTION);
+    addTokens(fields, lyricText, LYRIC);
+
+    lock.writeLock().lock();
+    try {
+      Integer docId = docIds.get(id);
+      if (docId != null) {
+        unindex(docId);
+      } else {
+        docId = allocateDocId(id);
+      }
+
+      String[] terms = fields.keySet().toArray(new String[0]);
+      docTerms.set(docId, terms);
+      for (String term : terms) {
+        postings.computeIfAbsent(term, this::newTerm).add(docId, fields.get(term));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(UUID id) {
+    lock.writeLock().lock();
+    try {
+      Integer docId = docIds.remove(id);
+      if (docId != null) {
+        unindex(docId);
+        docs.set(docId, null);
+        docTerms.set(docId, null);
+        freeDocIds.add(docId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      docIds.clear();
+      docs.clear();
+      docTerms.clear();
+      freeDocIds.clear();
+      postings.clear();
+      trigrams.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return docIds.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Returns up to `limit` documents matching every query term, best ranked first, together with
+  // the total number of matches
+  public SearchResult search(String query, int limit) {
+    List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(query)));
+    if (terms.isEmpty() || limit <= 0) {
+      return new SearchResult(List.of(), 0);
+    }
+
+    lock.readLock().lock();
+    try {
+      List<Map<Postings, Float>> expansions = new ArrayList<>(terms.size());
+      for (String term : terms) {
+        Map<Postings, Float> expansion = expand(term);
+        if (expansion.isEmpty()) {
+          return new SearchResult(List.of(), 0);
+        }
+        expansions.add(expansion);
+      }
+      expansions.sort(Comparator.comparingInt(MusicSearchIndex::documentFrequency));
+
+      Map<Integer, Float> scores = score(expansions.getFirst());
+      for (int i = 1; i < expansions.size() && !scores.isEmpty(); i++) {
+        Map<Postings, Float> expansion = expansions.get(i);
+        scores.entrySet().removeIf(entry -> !accumulate(entry, expansion));
+      }
+
+      return topResults(scores, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static void addTokens(Map<String, Byte> fields, String text, byte field) {
+    for (String token : TextNormalizer.tokenize(text)) {
+      fields.merge(token, field, (a, b) -> (byte) (a | b));
+    }
+  }
+
+  private int allocateDocId(UUID id) {
+    int docId;
+    if (freeDocIds.isEmpty()) {
+      docId = docs.size();
+      docs.add(id);
+      docTerms.add(null);
+    } else {
+      docId = freeDocIds.removeLast();
+      docs.set(docId, id);
+    }
+    docIds.put(id, docId);
+    return docId;
+  }
+
+  private void unindex(int docId) {
+    String[] terms = docTerms.get(docId);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms) {
+      Postings list = postings.get(term);
+      if (list != null && list.remove(docId) && list.size == 0) {
+        postings.remove(term);
+        for (String trigram : trigramsOf(term)) {
+          Set<String> vocabulary = trigrams.get(trigram);
+          vocabulary.remove(term);
+          if (vocabulary.isEmpty()) {
+            trigrams.remove(trigram);
+          }
+        }
+      }
+    }
+  }
+
+  private Postings newTerm(String term) {
+    for (String trigram : trigramsOf(term)) {
+      trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(term);
+    }
+    return new Postings();
+  }
+
+  // Maps a query term to the posting lists it matches and how strongly each one matches
+  private Map<Postings, Float> expand(String term) {
+    Map<Postings, Float> expansion = new HashMap<>();
+
+    Postings exact = postings.get(term);
+    if (exact != null) {
+      expansion.put(exact, EXACT_MATCH);
+    }
+
+    List<String> grams = trigramsOf(term);
+    if (grams.isEmpty()) {
+      return expansion;
+    }
+
+    Set<String> candidates = null;
+    for (String gram : grams) {
+      Set<String> vocabulary = trigrams.get(gram);
+      if (vocabulary == null) {
+        return expansion;
+      }
+      if (candidates == null || vocabulary.size() < candidates.size()) {
+        candidates = vocabulary;
+      }
+    }
+
+    for (String candidate : candidates) {
+      if (!candidate.equals(term) && candidate.contains(term)) {
+        float weight = candidate.startsWith(term) ? PREFIX_MATCH : INFIX_MATCH;
+        expansion.put(postings.get(candidate), weight);
+      }
+    }
+    return expansion;
+  }
+
+  private static int documentFrequency(Map<Postings, Float> expansion) {
+    int total = 0;
+    for (Postings list : expansion.keySet()) {
+      total += list.size;
+    }
+    return total;
+  }
+
+  private Map<Integer, Float> score(Map<Postings, Float> expansion) {
+    Map<Integer, Float> scores = new HashMap<>();
+    for (Map.Entry<Postings, Float> entry : expansion.entrySet()) {
+      Postings list = entry.getKey();
+      float idf = idf(list);
+      for (int i = 0; i < list.size; i++) {
+        float score = entry.getValue() * idf * fieldWeight(list.fields[i]);
+        scores.merge(list.docs[i], score, Math::max);
+      }
+    }
+    return scores;
+  }
+
+  // Adds the best match of the expansion for the candidate, returning false when it has none
+  private boolean accumulate(Map.Entry<Integer, Float> candidate, Map<Postings, Float> expansion) {
+    float best = 0f;
+    for (Map.Entry<Postings, Float> entry : expansion.entrySet()) {
+      Postings list = entry.getKey();
+      int i = Arrays.binarySearch(list.docs, 0, list.size, candidate.getKey());
+      if (i >= 0) {
+        best = Math.max(best, entry.getValue() * idf(list) * fieldWeight(list.fields[i]));
+      }
+    }
+    if (best == 0f) {
+      return false;
+    }
+    candidate.setValue(candidate.getValue() + best);
+    return true;
+  }
+
+  private float idf(Postings list) {
+    return (float) Math.log(1.0 + (double) docIds.size() / list.size);
+  }
+
+  private static float fieldWeight(byte fields) {
+    float weight = 0f;
+    if ((fields & TITLE) != 0) weight += TITLE_WEIGHT;
+    if ((fields & DESCRIPTION) != 0) weight += DESCRIPTION_WEIGHT;
+    if ((fields & LYRIC) != 0) weight += LYRIC_WEIGHT;
+    return weight;
+  }
+
+  private SearchResult topResults(Map<Integer, Float> scores, int limit) {
+    Comparator<Map.Entry<Integer, Float>> ranking =
+        Map.Entry.<Integer, Float>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(ranking.reversed());
+    for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+      top.offer(entry);
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+
+    List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(top);
+    ranked.sort(ranking);
+
+    List<UUID> ids = new ArrayList<>(ranked.size());
+    for (Map.Entry<Integer, Float> entry : ranked) {
+      ids.add(docs.get(entry.getKey()));
+    }
+    return new SearchResult(ids, scores.size());
+  }
+
+  private static List<String> trigramsOf(String term) {
+    if (term.length() < 3) {
+      return List.of();
+    }
+    List<String> grams = new ArrayList<>(term.length() - 2);
+    for (int i = 0; i + 3 <= term.length(); i++) {
+      grams.add(term.substring(i, i + 3));
+    }
+    return grams;
+  }
+
+  // Posting list kept sorted by document id so lookups can binary search it
+  private static final class Postings {
+    private int[] docs = new int[4];
+    private byte[] fields = new byte[4];
+    private int size;
+
+    void add(int docId, byte field) {
+      int i = Arrays.binarySearch(docs, 0, size, docId);
+      if (i >= 0) {
+        fields[i] |= field;
+        return;
+      }
+      int insertAt = -i - 1;
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        fields = Arrays.copyOf(fields, size * 2);
+      }
+      System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+      System.arraycopy(fields, insertAt, fields, insertAt + 1, size - insertAt);
+      docs[insertAt] = docId;
+      fields[insertAt] = field;
+      size++;
+    }
+
+    boolean remove(int docId) {
+      int i = Arrays.binarySearch(docs, 0, size, docId);
+      if (i < 0) {
+        return false;
+      }
+      System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+      System.arraycopy(fields, i + 1, fields, i, size - i - 1);
+      size--;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,6 @@
+package com.oryanend.tom_perfeito_api.services.search;
+
+import java.util.List;
+import java.util.UUID;
+
+public record SearchResult(List<UUID> ids, int total) {}
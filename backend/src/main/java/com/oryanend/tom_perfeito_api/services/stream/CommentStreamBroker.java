@@ -0,0 +1,172 @@
+package com.oryanend.tom_perfeito_api.services.stream;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// In-process fan-out of comment changes to the SSE subscribers of each music. An idle subscriber
+// is an async request and an empty buffer, no thread: events queue in a bounded buffer that drops
+// its oldest entry when the client falls behind, and a virtual thread drains it only while
+// something is pending.
+@Component
+public class CommentStreamBroker {
+
+  public static final String CREATED = "created";
+  public static final String UPDATED = "updated";
+  public static final String DELETED = "deleted";
+
+  private static final Event HEARTBEAT = new Event(null, null, null);
+
+  private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final AtomicLong eventIds = new AtomicLong();
+
+  @Value("${comment.stream.buffer-size}")
+  private int bufferSize;
+
+  @Value("${comment.stream.timeout}")
+  private Duration timeout;
+
+  public SseEmitter subscribe(UUID musicId) {
+    return subscribe(musicId, new SseEmitter(timeout.toMillis()));
+  }
+
+  // Tests hand in an emitter that records what is sent
+  SseEmitter subscribe(UUID musicId, SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(musicId, emitter);
+    subscribers.computeIfAbsent(musicId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+    emitter.onCompletion(() -> remove(subscriber));
+    emitter.onTimeout(() -> remove(subscriber));
+    emitter.onError(e -> remove(subscriber));
+    return emitter;
+  }
+
+  // Delivered once the surrounding transaction commits, a rolled back change is never announced
+  public void publish(UUID musicId, String name, Object data) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      broadcast(musicId, name, data);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            broadcast(musicId, name, data);
+          }
+        });
+  }
+
+  // Keeps proxies from closing quiet connections and finds the clients that went away
+  @Scheduled(fixedRateString = "${comment.stream.heartbeat}")
+  public void heartbeat() {
+    for (Set<Subscriber> targets : subscribers.values()) {
+      for (Subscriber subscriber : targets) {
+        subscriber.heartbeat();
+      }
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    subscribers.values().forEach(targets -> targets.forEach(s -> s.emitter.complete()));
+    senders.shutdownNow();
+  }
+
+  private void broadcast(UUID musicId, String name, Object data) {
+    Set<Subscriber> targets = subscribers.get(musicId);
+    if (targets == null) {
+      return;
+    }
+    Event event = new Event(Long.toString(eventIds.incrementAndGet()), name, data);
+    for (Subscriber subscriber : targets) {
+      subscriber.offer(event);
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.musicId,
+        (id, targets) -> {
+          targets.remove(subscriber);
+          return targets.isEmpty() ? null : targets;
+        });
+  }
+
+  // The builder of an SSE event is consumed when sent, so each send builds its own
+  private record Event(String id, String name, Object data) {
+    SseEmitter.SseEventBuilder toSse() {
+      if (name == null) {
+        return SseEmitter.event().comment("heartbeat");
+      }
+      return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+  }
+
+  private final class Subscriber {
+    private final UUID musicId;
+    private final SseEmitter emitter;
+    private final Deque<Event> buffer = new ArrayDeque<>();
+    private boolean draining;
+
+    Subscriber(UUID musicId, SseEmitter emitter) {
+      this.musicId = musicId;
+      this.emitter = emitter;
+    }
+
+    synchronized void offer(Event event) {
+      if (buffer.size() >= bufferSize) {
+        buffer.pollFirst();
+      }
+      buffer.addLast(event);
+      if (!draining) {
+        draining = true;
+        senders.execute(this::drain);
+      }
+    }
+
+    synchronized void heartbeat() {
+      if (!draining) {
+        offer(HEARTBEAT);
+      }
+    }
+
+    private synchronized Event next() {
+      Event event = buffer.pollFirst();
+      if (event == null) {
+        draining = false;
+      }
+      return event;
+    }
+
+    // A failed send leaves `draining` set, the subscriber is gone and never scheduled again
+    private void drain() {
+      Event event;
+      while ((event = next()) != null) {
+        try {
+          emitter.send(event.toSse());
+        } catch (IOException | IllegalStateException e) {
+          remove(this);
+          emitter.completeWithError(e);
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.oryanend.tom_perfeito_api.util;
+
+// Materialized path of a comment: the ids of its ancestors from the root down, each zero padded to
+// SEGMENT_LENGTH digits, a top-level comment having the empty path. Fixed width digits sort the
+// same in every collation, so the descendants of a comment are exactly the rows whose path falls
+// in [descendants(comment), upperBound(descendants(comment))), one range over the path index.
+public final class CommentPath {
+
+  public static final int SEGMENT_LENGTH = 19;
+
+  // Width of the path column, and how many ancestors fit in it
+  public static final int MAX_LENGTH = 2000;
+  public static final int MAX_DEPTH = MAX_LENGTH / SEGMENT_LENGTH;
+
+  private CommentPath() {}
+
+  // Path handed to the replies of a comment, and lower bound of its subtree
+  public static String descendants(String path, Long id) {
+    return path + segment(id);
+  }
+
+  // Smallest path after every path starting with the prefix: its last segment plus one
+  public static String upperBound(String prefix) {
+    char[] digits = prefix.toCharArray();
+    int i = digits.length - 1;
+    while (digits[i] == '9') {
+      digits[i--] = '0';
+    }
+    digits[i]++;
+    return new String(digits);
+  }
+
+  public static int depth(String path) {
+    return path.length() / SEGMENT_LENGTH;
+  }
+
+  private static String segment(Long id) {
+    String digits = Long.toString(id);
+    return "0".repeat(SEGMENT_LENGTH - digits.length()) + digits;
+  }
+}
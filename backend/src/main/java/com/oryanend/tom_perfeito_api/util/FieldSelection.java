@@ -0,0 +1,80 @@
+package com.oryanend.tom_perfeito_api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// Sparse fieldset asked for with `?fields=` and `?expand=`, both comma separated. `fields` keeps
+// only the listed properties, `expand` embeds the listed associations on top of them. With neither
+// everything is kept, with `expand` alone the plain properties are kept and only the listed
+// associations embedded.
+public record FieldSelection(Set<String> fields, Set<String> expand) {
+
+  public static final FieldSelection ALL = new FieldSelection(null, null);
+
+  // Jackson filter id of the DTOs the selection applies to
+  public static final String FILTER = "fields";
+
+  // Properties of CommentDTO, MusicDTO and UserDTO holding other resources
+  private static final Set<String> ASSOCIATIONS =
+      Set.of("author", "music", "replies", "lyric", "createdBy", "comments", "roles", "musics");
+
+  public static FieldSelection of(Collection<String> fields, Collection<String> expand) {
+    if (fields == null && expand == null) {
+      return ALL;
+    }
+    return new FieldSelection(split(fields), split(expand));
+  }
+
+  private static Set<String> split(Collection<String> values) {
+    if (values == null) {
+      return null;
+    }
+    return values.stream()
+        .flatMap(value -> Arrays.stream(value.split(",")))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  public boolean includes(String property) {
+    if (expand != null && expand.contains(property)) {
+      return true;
+    }
+    if (fields != null) {
+      return fields.contains(property);
+    }
+    return expand == null || !ASSOCIATIONS.contains(property);
+  }
+
+  public boolean isAll() {
+    return fields == null && expand == null;
+  }
+
+  // Stable across the order the names were given in, for validators of the selected view
+  public String key() {
+    return "fields=" + join(fields) + ";expand=" + join(expand);
+  }
+
+  // SHA-256 of the key, base64url encoded: fits a header whatever the names, and two selections
+  // only share a digest if they share a key
+  public String digest() {
+    try {
+      byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(key().getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String join(Set<String> names) {
+    return names == null ? "*" : String.join(",", names);
+  }
+}
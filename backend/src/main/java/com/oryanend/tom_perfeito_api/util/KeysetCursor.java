@@ -0,0 +1,29 @@
+package com.oryanend.tom_perfeito_api.util;
+
+import com.oryanend.tom_perfeito_api.services.exceptions.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Position of the last row of a page, ordered by (createdAt, id). Clients only ever see it as an
+// opaque url-safe token.
+public record KeysetCursor(Instant createdAt, String id) {
+
+  public String encode() {
+    String raw = createdAt.toString() + "|" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static KeysetCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf('|');
+      return new KeysetCursor(
+          Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+    } catch (RuntimeException e) {
+      throw new InvalidCursorException("Invalid cursor: " + token);
+    }
+  }
+}
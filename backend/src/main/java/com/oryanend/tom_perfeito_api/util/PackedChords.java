@@ -0,0 +1,78 @@
+package com.oryanend.tom_perfeito_api.util;
+
+import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Codec for the packed chord storage of a lyric. Markers are sorted by position and written as a
+// varint count followed by (position delta, chordId) varint pairs, so a typical marker takes two
+// or three bytes instead of a tb_lyric_chord row. Deltas are zigzag encoded, the first one is the
+// absolute position and may be negative.
+public final class PackedChords {
+
+  private PackedChords() {}
+
+  public static byte[] encode(List<LyricChordDTO> chords) {
+    List<LyricChordDTO> sorted = new ArrayList<>(chords);
+    sorted.sort(
+        Comparator.comparing(LyricChordDTO::getPosition).thenComparing(LyricChordDTO::getChordId));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1 + sorted.size() * 3);
+    writeVarint(out, sorted.size());
+    long previous = 0;
+    for (LyricChordDTO chord : sorted) {
+      long delta = chord.getPosition() - previous;
+      writeVarint(out, (delta << 1) ^ (delta >> 63));
+      writeVarint(out, chord.getChordId());
+      previous = chord.getPosition();
+    }
+    return out.toByteArray();
+  }
+
+  public static List<LyricChordDTO> decode(byte[] packed) {
+    Reader in = new Reader(packed);
+    int size = (int) in.readVarint();
+    List<LyricChordDTO> chords = new ArrayList<>(size);
+    long position = 0;
+    for (int i = 0; i < size; i++) {
+      long zigzag = in.readVarint();
+      position += (zigzag >>> 1) ^ -(zigzag & 1);
+      chords.add(new LyricChordDTO(in.readVarint(), (int) position));
+    }
+    return chords;
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static final class Reader {
+    private final byte[] bytes;
+    private int offset;
+
+    Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    long readVarint() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        if (offset >= bytes.length) {
+          throw new IllegalArgumentException("Truncated packed chords");
+        }
+        byte b = bytes[offset++];
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed packed chords");
+    }
+  }
+}
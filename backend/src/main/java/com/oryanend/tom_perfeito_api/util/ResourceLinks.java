@@ -0,0 +1,46 @@
+package com.oryanend.tom_perfeito_api.util;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+import com.oryanend.tom_perfeito_api.controllers.MusicController;
+import com.oryanend.tom_perfeito_api.controllers.UserController;
+import java.util.UUID;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Self links for the DTOs. The controller route is resolved through Spring HATEOAS once per
+// request and kept as a request attribute, every row then only appends its id to it. The output
+// is the same as `linkTo(methodOn(controller).findById(id))`.
+public final class ResourceLinks {
+
+  private static final String ATTRIBUTE_PREFIX = ResourceLinks.class.getName() + ".";
+
+  private ResourceLinks() {}
+
+  public static String music(UUID id) {
+    return base(MusicController.class) + "/" + id;
+  }
+
+  public static String user(UUID id) {
+    return base(UserController.class) + "/" + id;
+  }
+
+  private static String base(Class<?> controller) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return resolve(controller);
+    }
+
+    String key = ATTRIBUTE_PREFIX + controller.getName();
+    String base = (String) attributes.getAttribute(key, RequestAttributes.SCOPE_REQUEST);
+    if (base == null) {
+      base = resolve(controller);
+      attributes.setAttribute(key, base, RequestAttributes.SCOPE_REQUEST);
+    }
+    return base;
+  }
+
+  private static String resolve(Class<?> controller) {
+    return linkTo(controller).toUri().toString();
+  }
+}
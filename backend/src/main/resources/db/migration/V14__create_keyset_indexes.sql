@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_music_created_at_id
+    ON tb_music (created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_music_parent_created_at
+    ON tb_comments (music_id, parent_id, created_at, id);
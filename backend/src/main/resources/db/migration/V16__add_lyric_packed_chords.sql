@@ -0,0 +1 @@
+ALTER TABLE tb_lyric ADD COLUMN IF NOT EXISTS packed_chords BYTEA;
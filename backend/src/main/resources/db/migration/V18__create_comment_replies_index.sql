@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_comments_parent_created_at
+    ON tb_comments (parent_id, created_at, id);
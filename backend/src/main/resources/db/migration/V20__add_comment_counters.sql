@@ -0,0 +1,8 @@
+ALTER TABLE tb_music ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tb_comments ADD COLUMN IF NOT EXISTS reply_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE tb_music
+SET comment_count = (SELECT COUNT(*) FROM tb_comments c WHERE c.music_id = tb_music.id);
+
+UPDATE tb_comments
+SET reply_count = (SELECT COUNT(*) FROM tb_comments r WHERE r.parent_id = tb_comments.id);
@@ -0,0 +1,91 @@
+package com.oryanend.tom_perfeito_api.benchmarks;
+
+import com.oryanend.tom_perfeito_api.TomPerfeitoApiApplication;
+import com.oryanend.tom_perfeito_api.entities.Chord;
+import com.oryanend.tom_perfeito_api.repositories.ChordRepository;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordIndex;
+import com.oryanend.tom_perfeito_api.services.harmony.ChordMatch;
+import com.oryanend.tom_perfeito_api.services.harmony.PitchClasses;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Chords holding C, E and G: the JOIN ... GROUP BY ... HAVING query against the pitch-class index,
+// both over the seeded catalog of the test profile (H2).
+//
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=com.oryanend.tom_perfeito_api.benchmarks.ChordIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChordIndexBenchmark {
+
+  private static final List<String> NOTES = List.of("C", "E", "G");
+
+  private ConfigurableApplicationContext context;
+  private ChordRepository repository;
+  private ChordIndex chordIndex;
+  private TransactionTemplate readOnly;
+  private int queryMask;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context =
+        new SpringApplicationBuilder(TomPerfeitoApiApplication.class)
+            .run(
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+    repository = context.getBean(ChordRepository.class);
+    chordIndex = context.getBean(ChordIndex.class);
+    readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnly.setReadOnly(true);
+
+    for (String note : NOTES) {
+      queryMask |= 1 << PitchClasses.parse(note);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Chord> sqlGroupBy() {
+    return readOnly.execute(status -> repository.findByNameAndNotes(null, NOTES, NOTES.size()));
+  }
+
+  @Benchmark
+  public void pitchClassIndex(Blackhole hits) {
+    chordIndex.search(queryMask, ChordMatch.SUPERSET, null, hits::consume);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ChordIndexBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
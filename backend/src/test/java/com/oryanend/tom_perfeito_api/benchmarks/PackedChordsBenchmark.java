@@ -0,0 +1,179 @@
+package com.oryanend.tom_perfeito_api.benchmarks;
+
+import com.oryanend.tom_perfeito_api.TomPerfeitoApiApplication;
+import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicDTO;
+import com.oryanend.tom_perfeito_api.entities.Lyric;
+import com.oryanend.tom_perfeito_api.entities.Music;
+import com.oryanend.tom_perfeito_api.entities.User;
+import com.oryanend.tom_perfeito_api.repositories.ChordRepository;
+import com.oryanend.tom_perfeito_api.repositories.MusicRepository;
+import com.oryanend.tom_perfeito_api.repositories.UserRepository;
+import com.oryanend.tom_perfeito_api.util.PackedChords;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+// Reading a chord-dense music (MARKERS markers) into a `MusicDTO`: markers stored as
+// tb_lyric_chord rows against the same markers packed into tb_lyric.packed_chords, over the test
+// profile on a throwaway file database (H2 only reports the disk space of tables it writes to
+// disk). The storage each layout takes is measured by the database at setup and logged
+// before the first iteration as "Storage of N markers: rows X bytes, packed Y bytes": the growth of
+// DISK_SPACE_USED('TB_LYRIC_CHORD') while the rows are written against OCTET_LENGTH of the packed
+// column. On Postgres compare pg_total_relation_size('tb_lyric_chord') before and after the packing
+// migration.
+//
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=com.oryanend.tom_perfeito_api.benchmarks.PackedChordsBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedChordsBenchmark {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PackedChordsBenchmark.class);
+
+  private static final int MARKERS = 300;
+
+  private Path database;
+  private ConfigurableApplicationContext context;
+  private MusicRepository repository;
+  private TransactionTemplate readOnly;
+  private UUID rowsId;
+  private UUID packedId;
+
+  @Setup(Level.Trial)
+  public void startApplication() throws IOException {
+    database = Files.createTempDirectory("packed-chords-benchmark");
+    context =
+        new SpringApplicationBuilder(TomPerfeitoApiApplication.class)
+            .run(
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:file:" + database.resolve("db"),
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.oryanend.tom_perfeito_api.benchmarks=INFO");
+    repository = context.getBean(MusicRepository.class);
+    ChordRepository chordRepository = context.getBean(ChordRepository.class);
+    UserRepository userRepository = context.getBean(UserRepository.class);
+    TransactionTemplate writable =
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnly.setReadOnly(true);
+
+    User author =
+        writable.execute(
+            status ->
+                userRepository.save(
+                    new User(null, "benchmark", "benchmark@tomperfeito.com", "benchmark")));
+
+    List<LyricChordDTO> markers = new ArrayList<>(MARKERS);
+    for (int i = 0; i < MARKERS; i++) {
+      markers.add(new LyricChordDTO((long) (i % 15) + 1, i * 6));
+    }
+    byte[] packed = PackedChords.encode(markers);
+
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    long tableBefore = tableSize(jdbcTemplate);
+    rowsId =
+        writable.execute(
+            status -> {
+              Music music = newMusic("Rows", author);
+              for (LyricChordDTO marker : markers) {
+                music
+                    .getLyric()
+                    .addChord(
+                        chordRepository.getReferenceById(marker.getChordId()),
+                        marker.getPosition());
+              }
+              return repository.save(music).getId();
+            });
+    packedId =
+        writable.execute(
+            status -> {
+              Music music = newMusic("Packed", author);
+              music.getLyric().setPackedChords(packed);
+              return repository.save(music).getId();
+            });
+
+    long rowsBytes = tableSize(jdbcTemplate) - tableBefore;
+    long packedBytes =
+        jdbcTemplate.queryForObject(
+            "SELECT OCTET_LENGTH(packed_chords) FROM tb_lyric WHERE music_id = ?",
+            Long.class,
+            packedId);
+    LOG.info(
+        "Storage of {} markers: rows {} bytes, packed {} bytes", MARKERS, rowsBytes, packedBytes);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() throws IOException {
+    context.close();
+    FileSystemUtils.deleteRecursively(database);
+  }
+
+  @Benchmark
+  public MusicDTO rows() {
+    return read(rowsId);
+  }
+
+  @Benchmark
+  public MusicDTO packed() {
+    return read(packedId);
+  }
+
+  // Pages only count once written, checkpoint first so the background writer can't skew the delta
+  private static long tableSize(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.execute("CHECKPOINT SYNC");
+    return jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED('TB_LYRIC_CHORD')", Long.class);
+  }
+
+  private MusicDTO read(UUID id) {
+    return readOnly.execute(status -> new MusicDTO(repository.findWithLyricById(id).orElseThrow()));
+  }
+
+  private static Music newMusic(String title, User author) {
+    Music music = new Music(null, title, "Benchmark", LocalDate.of(2000, 1, 1), null, null);
+    music.setCreatedBy(author);
+    Lyric lyric = new Lyric(null, "Lyric");
+    lyric.setMusic(music);
+    music.setLyric(lyric);
+    return music;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PackedChordsBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,103 @@
+package com.oryanend.tom_perfeito_api.benchmarks;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import com.oryanend.tom_perfeito_api.controllers.MusicController;
+import com.oryanend.tom_perfeito_api.util.ResourceLinks;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Per-row cost of a music self link, as paid by every `MusicMinDTO` of a listing page. Each
+// invocation is one request rendering a page of `rows` links.
+//
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=com.oryanend.tom_perfeito_api.benchmarks.ResourceLinksBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceLinksBenchmark {
+
+  private static final int ROWS = 20;
+
+  private UUID[] ids;
+
+  @Setup(Level.Trial)
+  public void createIds() {
+    ids = new UUID[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      ids[i] = UUID.randomUUID();
+    }
+
+    String expected =
+        linkTo(
+                methodOn(MusicController.class)
+                    .findById(ids[0].toString(), null, null, null, null, null))
+            .toUri()
+            .toString();
+    if (!expected.equals(ResourceLinks.music(ids[0]))) {
+      throw new IllegalStateException("Links differ: " + expected);
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void startRequest() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/musics");
+    request.setServerName("api.tomperfeito.com");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  @TearDown(Level.Invocation)
+  public void endRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Benchmark
+  public String[] methodOnProxy() {
+    String[] links = new String[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      links[i] =
+          linkTo(
+                  methodOn(MusicController.class)
+                      .findById(ids[i].toString(), null, null, null, null, null))
+              .toUri()
+              .toString();
+    }
+    return links;
+  }
+
+  @Benchmark
+  public String[] resourceLinks() {
+    String[] links = new String[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      links[i] = ResourceLinks.music(ids[i]);
+    }
+    return links;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ResourceLinksBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
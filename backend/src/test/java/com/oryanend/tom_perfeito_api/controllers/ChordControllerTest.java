@@ -1,6 +1,9 @@
 package com.oryanend.tom_perfeito_api.controllers;
 
 import static com.oryanend.tom_perfeito_api.factory.ChordDTOFactory.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -8,7 +11,19 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oryanend.tom_perfeito_api.dto.ChordDTO;
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import com.oryanend.tom_perfeito_api.entities.enums.NoteName;
+import com.oryanend.tom_perfeito_api.repositories.ChordRepository;
 import com.oryanend.tom_perfeito_api.repositories.NoteRepository;
+import com.oryanend.tom_perfeito_api.services.ChordService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,9 +31,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -30,10 +49,23 @@ public class ChordControllerTest {
 
   @Autowired private NoteRepository noteRepository;
 
+  @Autowired private ChordService chordService;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @PersistenceContext private EntityManager entityManager;
+
   private String chordUrl;
   private String validChordName, nonExistingChordName;
   private ChordDTO validChordDTO, withoutNotesChordDTO, withoutNameChordDTO, withoutTypeChordDTO;
 
+  // The chord index follows committed rows only, rebuilding it once the test transaction is
+  // rolled back keeps one test's chords out of the next one's results
+  @AfterTransaction
+  void rebuildChordIndex() {
+    chordService.buildChordIndex();
+  }
+
   @BeforeEach
   void setUp() {
     chordUrl = "/chords";
@@ -63,6 +95,28 @@ public class ChordControllerTest {
         .andExpect(jsonPath("$.content[0].notes").isArray());
   }
 
+  // Read-write regions only serve entries cached before the reading transaction started, so each
+  // request runs in its own transaction here
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  @DisplayName("GET `/chords` should read chord notes from the second level cache once warm")
+  void findAllChordsShouldUseSecondLevelCache() throws Exception {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    // Warm up the chord and note regions
+    mockMvc.perform(get(chordUrl).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+    statistics.clear();
+
+    mockMvc
+        .perform(get(chordUrl).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].notes").isNotEmpty());
+
+    // Only the page query reaches the database, the seeded chords fit in one page
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+  }
+
   // Tests for `/chords/search` endpoint
   @Test
   @DisplayName("GET `/chords/search` should return chords matching name with valid parameter")
@@ -115,6 +169,130 @@ public class ChordControllerTest {
     result.andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
   }
 
+  @Test
+  @DisplayName(
+      "GET `/chords/search` should match notes by pitch class as exact, superset or subset")
+  void searchChordsByPitchClasses() throws Exception {
+    mockMvc
+        .perform(
+            get(chordUrl + "/search")
+                .param("notes", "A", "C", "E")
+                .param("match", "EXACT")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].name").value("A Minor"));
+
+    mockMvc
+        .perform(
+            get(chordUrl + "/search")
+                .param("notes", "A", "C", "E")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(3))
+        .andExpect(jsonPath("$[0].name").value("A Minor"))
+        .andExpect(jsonPath("$[1].name").value("Am7"))
+        .andExpect(jsonPath("$[2].name").value("Fmaj7"));
+
+    mockMvc
+        .perform(
+            get(chordUrl + "/search")
+                .param("notes", "A", "C", "E", "G")
+                .param("match", "SUBSET")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].name").value("A Minor"))
+        .andExpect(jsonPath("$[1].name").value("Am7"));
+
+    // Bb is stored as A#, both spell the same pitch class
+    mockMvc
+        .perform(
+            get(chordUrl + "/search")
+                .param("notes", "C", "E", "G", "Bb")
+                .param("match", "EXACT")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].name").value("C7"));
+  }
+
+  @Test
+  @DisplayName("GET `/chords/search` should find a chord by its notes right after it is inserted")
+  void searchChordsAfterInsert() throws Exception {
+    ChordDTO dto = createChordDTO(noteRepository, NoteName.F, ChordType.MINOR, 6L, 9L, 1L);
+    dto.setName("F Minor");
+    insertChord(dto).andExpect(status().isCreated());
+
+    // Not indexed before the transaction commits
+    mockMvc
+        .perform(
+            get(chordUrl + "/search")
+                .param("notes", "F", "Ab", "C")
+                .param("match", "EXACT")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(0));
+    runAfterCommit();
+
+    mockMvc
+        .perform(
+            get(chordUrl + "/search")
+                .param("notes", "F", "Ab", "C")
+                .param("match", "EXACT")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].name").value("F Minor"));
+  }
+
+  // Tests for `/chords/parse` and `/chords/identify` endpoints
+  @Test
+  @DisplayName("GET `/chords/parse` should spell the notes of sharp, flat and slash chord symbols")
+  void parseChordSymbols() throws Exception {
+    mockMvc
+        .perform(get(chordUrl + "/parse").param("symbol", "Dbmaj7"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.symbol").value("C#maj7"))
+        .andExpect(jsonPath("$.root").value("C#"))
+        .andExpect(jsonPath("$.type").value("MAJOR7"))
+        .andExpect(jsonPath("$.notes[0]").value("C#"))
+        .andExpect(jsonPath("$.notes[1]").value("F"))
+        .andExpect(jsonPath("$.notes[2]").value("G#"))
+        .andExpect(jsonPath("$.notes[3]").value("C"));
+
+    mockMvc
+        .perform(get(chordUrl + "/parse").param("symbol", "F/A"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.type").value("MAJOR"))
+        .andExpect(jsonPath("$.bass").value("A"))
+        .andExpect(jsonPath("$.notes.length()").value(3));
+
+    mockMvc
+        .perform(get(chordUrl + "/parse").param("symbol", "H7"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Invalid notation"))
+        .andExpect(jsonPath("$.message").value("Invalid chord symbol: H7"));
+  }
+
+  @Test
+  @DisplayName("GET `/chords/identify` should name every chord spelled by the given notes")
+  void identifyChords() throws Exception {
+    mockMvc
+        .perform(get(chordUrl + "/identify").param("notes", "G", "E", "C", "A"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].symbol").value("Am7"));
+
+    // A diminished seventh is symmetric, any of its notes can be the root
+    mockMvc
+        .perform(get(chordUrl + "/identify").param("notes", "C", "Eb", "F#", "A"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(4))
+        .andExpect(jsonPath("$[0].symbol").value("Cdim7"))
+        .andExpect(jsonPath("$[3].symbol").value("Adim7"));
+  }
+
   // Tests for `/chords` POST endpoint
   @Test
   @DisplayName("POST `/chords` should insert a new chord")
@@ -182,8 +360,80 @@ public class ChordControllerTest {
         .andExpect(jsonPath("$.errors[0].message").value("Chord name cannot be null"));
   }
 
+  // Tests for `/chords/bulk` POST endpoint
+  @Test
+  @DisplayName("POST `/chords/bulk` should insert every chord without reading the notes again")
+  void insertAllChords() throws Exception {
+    List<ChordDTO> chords =
+        List.of(
+            createChordDTO(noteRepository, NoteName.C, ChordType.MAJOR, 1L, 5L, 8L),
+            createChordDTO(noteRepository, NoteName.D, ChordType.MINOR, 3L, 6L, 10L),
+            createChordDTO(noteRepository, NoteName.G, ChordType.MAJOR, 8L, 12L, 3L));
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(
+            post(chordUrl + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(chords))
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.length()").value(3))
+        .andExpect(jsonPath("$[1].name").value("D"))
+        .andExpect(jsonPath("$[1].notes.length()").value(3));
+    entityManager.flush();
+
+    // Notes come from the registry, ids from the sequence and the rows go out in batches
+    assertEquals(0, statistics.getEntityLoadCount());
+    assertEquals(3, statistics.getEntityInsertCount());
+    assertTrue(statistics.getPrepareStatementCount() <= 3);
+  }
+
+  @Test
+  @DisplayName("POST `/chords/bulk` should return 422 with the index of an invalid chord")
+  void insertAllWithInvalidChord() throws Exception {
+    List<ChordDTO> chords = List.of(validChordDTO, withoutNameChordDTO);
+
+    mockMvc
+        .perform(
+            post(chordUrl + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(chords))
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.error").value("Validation Exception"))
+        .andExpect(jsonPath("$.errors[0].fieldName").value("[1].name"))
+        .andExpect(jsonPath("$.errors[0].message").value("Chord name cannot be null"));
+  }
+
+  @Test
+  @DisplayName("Chords should never be deleted, packed lyrics reference them by id")
+  void chordsShouldNeverBeDeleted() throws Exception {
+    // No endpoint deletes a chord
+    mockMvc.perform(delete(chordUrl + "/1")).andExpect(status().isNotFound());
+
+    // Nor does the service or the repository beneath it offer one
+    assertTrue(
+        Arrays.stream(ChordService.class.getMethods()).noneMatch(ChordControllerTest::deletes));
+    assertTrue(
+        Arrays.stream(ChordRepository.class.getMethods()).noneMatch(ChordControllerTest::deletes));
+  }
+
   // Methods to help tests
 
+  private static boolean deletes(Method method) {
+    return method.getName().startsWith("delete");
+  }
+
+  // The test transaction never commits, so the after-commit work registered so far is run by hand
+  private void runAfterCommit() {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+  }
+
   // This method can be used to insert a chord directly into the database for testing purposes
   private ResultActions insertChord(ChordDTO chord) throws Exception {
     String jsonBody = objectMapper.writeValueAsString(chord);
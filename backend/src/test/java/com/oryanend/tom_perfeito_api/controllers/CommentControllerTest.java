@@ -3,14 +3,17 @@ package com.oryanend.tom_perfeito_api.controllers;
 import static com.oryanend.tom_perfeito_api.factory.MusicDTOFactory.createValidMusicDTO;
 import static com.oryanend.tom_perfeito_api.factory.UserDTOFactory.createAdminUserDTOTemplate;
 import static com.oryanend.tom_perfeito_api.factory.UserDTOFactory.createUserDTOTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oryanend.tom_perfeito_api.config.CacheConfig;
 import com.oryanend.tom_perfeito_api.dto.CommentDTO;
 import com.oryanend.tom_perfeito_api.dto.MusicDTO;
 import com.oryanend.tom_perfeito_api.dto.RoleDTO;
@@ -18,8 +21,20 @@ import com.oryanend.tom_perfeito_api.dto.UserDTO;
 import com.oryanend.tom_perfeito_api.entities.Role;
 import com.oryanend.tom_perfeito_api.repositories.CommentRepository;
 import com.oryanend.tom_perfeito_api.repositories.RoleRepository;
+import com.oryanend.tom_perfeito_api.services.CommentCounterReconciler;
+import com.oryanend.tom_perfeito_api.services.CommentService;
+import com.oryanend.tom_perfeito_api.services.stream.CommentStreamBroker;
+import com.oryanend.tom_perfeito_api.util.CommentPath;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,8 +42,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +63,20 @@ public class CommentControllerTest {
 
   @Autowired private RoleRepository roleRepository;
 
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private CommentService commentService;
+
+  @Autowired private CommentStreamBroker commentStreamBroker;
+
+  @Autowired private CommentCounterReconciler commentCounterReconciler;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private CacheManager cacheManager;
+
+  @PersistenceContext private EntityManager entityManager;
+
   private String commentUrl, musicUrl, authRegisterUrl, authLoginUrl;
   private CommentDTO validCommentDTO;
   private MusicDTO validMusicDTO;
@@ -52,6 +85,9 @@ public class CommentControllerTest {
   private UUID existingId, nonExistingId;
   private Long commentExistingId, commentNonExistingId;
 
+  @Value("${comment.replies.max-depth}")
+  private int maxDepth;
+
   @Value("${security.client-id}")
   private String clientId;
 
@@ -113,6 +149,77 @@ public class CommentControllerTest {
         .andExpect(jsonPath("$.updatedAt").exists());
   }
 
+  @Test
+  @DisplayName("GET `/comments/{id}` should load a deep thread with a single statement")
+  void getCommentThreadWithSingleStatement() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    // Five levels of replies under the root comment
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    CommentDTO parent = root;
+    for (int i = 0; i < 5; i++) {
+      parent = createReplyComment(parent, token);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId + "/comments/" + root.getId()))
+        .andExpect(status().isOk())
+        .andExpect(
+            jsonPath("$.replies[0].replies[0].replies[0].replies[0].replies[0].id")
+                .value(parent.getId()))
+        .andExpect(
+            jsonPath("$.replies[0].replies[0].replies[0].replies[0].replies[0].author.id").exists())
+        .andExpect(
+            jsonPath("$.replies[0].replies[0].replies[0].replies[0].replies[0].replies").isEmpty());
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("GET `/comments/{id}` should only load and return the fields asked for")
+  void getCommentWithSparseFieldset() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    CommentDTO reply = createReply(root, "Reply", token);
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(
+            get(musicUrl + "/" + existingId + "/comments/" + root.getId())
+                .param("fields", "id,body,replies"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.body").value(validCommentDTO.getBody()))
+        .andExpect(jsonPath("$.likes").doesNotExist())
+        .andExpect(jsonPath("$.author").doesNotExist())
+        .andExpect(jsonPath("$.music").doesNotExist())
+        .andExpect(jsonPath("$.replies[0].id").value(reply.getId()))
+        .andExpect(jsonPath("$.replies[0].author").doesNotExist());
+
+    // Only the two comments, neither authors nor the music
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(2, statistics.getEntityLoadCount());
+
+    mockMvc
+        .perform(
+            get(musicUrl + "/" + existingId + "/comments/" + root.getId())
+                .param("expand", "author"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.body").value(validCommentDTO.getBody()))
+        .andExpect(jsonPath("$.author.username").value(validUserDTO.getUsername()))
+        .andExpect(jsonPath("$.music").doesNotExist())
+        .andExpect(jsonPath("$.replies").doesNotExist());
+  }
+
   @Test
   @DisplayName("GET `/comments/{id}` should return 404 when comment ID does not exist")
   void getCommentByNonExistingId() throws Exception {
@@ -134,16 +241,204 @@ public class CommentControllerTest {
   @Test
   @DisplayName("GET `/comments` should return paged comments")
   void getComments() throws Exception {
-    // Perform GET request to retrieve comments
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    // Two top-level comments, the older one with two replies, and a comment on another music
+    CommentDTO older = createComment(existingId, validCommentDTO, token);
+    CommentDTO reply = createReplyComment(older, token);
+    createReplyComment(reply, token);
+    CommentDTO otherReply = new CommentDTO();
+    otherReply.setBody("Another reply");
+    otherReply.setParentId(older.getId());
+    createComment(existingId, otherReply, token);
+    CommentDTO newer = createComment(existingId, validCommentDTO, token);
+    createComment(createMusic(validMusicDTO, token).getId(), validCommentDTO, token);
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
     ResultActions result = mockMvc.perform(get(musicUrl + "/" + existingId + "/comments"));
 
     result
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.content").isArray())
         .andExpect(jsonPath("$.pageable").exists())
-        .andExpect(jsonPath("$.totalElements").exists())
+        .andExpect(jsonPath("$.totalElements").value(2))
         .andExpect(jsonPath("$.totalPages").exists())
-        .andExpect(jsonPath("$.last").exists());
+        .andExpect(jsonPath("$.last").exists())
+        .andExpect(jsonPath("$.content[0].id").value(newer.getId()))
+        .andExpect(jsonPath("$.content[0].replyCount").value(0))
+        .andExpect(jsonPath("$.content[1].id").value(older.getId()))
+        .andExpect(jsonPath("$.content[1].replyCount").value(2))
+        .andExpect(jsonPath("$.content[1].replies").doesNotExist())
+        .andExpect(jsonPath("$.content[1].author.username").exists())
+        .andExpect(jsonPath("$.content[1].music.id").value(existingId.toString()));
+
+    // One page query, no lazy loads per comment
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("GET `/comments/cursor` should page top-level comments through `nextCursor`")
+  void getCommentsByCursor() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    List<CommentDTO> created = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      created.add(createComment(existingId, validCommentDTO, registerUserAndObtainAcessToken));
+    }
+    String cursorUrl = musicUrl + "/" + existingId + "/comments/cursor";
+
+    String firstPage =
+        mockMvc
+            .perform(get(cursorUrl).param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(2))
+            .andExpect(jsonPath("$.content[0].id").value(created.get(2).getId()))
+            .andExpect(jsonPath("$.content[1].id").value(created.get(1).getId()))
+            .andExpect(jsonPath("$.nextCursor").exists())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+    mockMvc
+        .perform(get(cursorUrl).param("size", "2").param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.length()").value(1))
+        .andExpect(jsonPath("$.content[0].id").value(created.get(0).getId()))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist())
+        .andExpect(jsonPath("$.last").value(true));
+  }
+
+  @Test
+  @DisplayName("GET `/comments/{id}` should embed a bounded preview of the replies")
+  void getCommentWithBoundedReplies() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    // Four direct replies, the first one replied to as well
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    List<CommentDTO> replies = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      replies.add(createReply(root, "Reply " + i, token));
+    }
+    createReply(replies.get(0), "Nested reply", token);
+
+    ReflectionTestUtils.setField(commentService, "maxDepth", 1);
+    try {
+      mockMvc
+          .perform(get(musicUrl + "/" + existingId + "/comments/" + root.getId()))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.replyCount").value(4))
+          .andExpect(jsonPath("$.replies.length()").value(3))
+          .andExpect(jsonPath("$.replies[0].id").value(replies.get(0).getId()))
+          .andExpect(jsonPath("$.replies[2].id").value(replies.get(2).getId()))
+          .andExpect(jsonPath("$.replies[0].replyCount").value(1))
+          .andExpect(jsonPath("$.replies[0].replies").isEmpty());
+    } finally {
+      ReflectionTestUtils.setField(commentService, "maxDepth", maxDepth);
+    }
+  }
+
+  @Test
+  @DisplayName("GET `/comments/{id}/replies` should page direct replies through `nextCursor`")
+  void getRepliesByCursor() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    List<CommentDTO> replies = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      replies.add(createReply(root, "Reply " + i, token));
+    }
+    createReply(replies.get(1), "Nested reply", token);
+    String repliesUrl = musicUrl + "/" + existingId + "/comments/" + root.getId() + "/replies";
+
+    ResultActions firstPage =
+        mockMvc
+            .perform(get(repliesUrl).param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(2))
+            .andExpect(jsonPath("$.content[0].id").value(replies.get(0).getId()))
+            .andExpect(jsonPath("$.content[1].id").value(replies.get(1).getId()))
+            .andExpect(jsonPath("$.content[1].replyCount").value(1))
+            .andExpect(jsonPath("$.content[1].replies").doesNotExist())
+            .andExpect(jsonPath("$.nextCursor").exists());
+
+    String nextCursor =
+        objectMapper
+            .readTree(firstPage.andReturn().getResponse().getContentAsString())
+            .get("nextCursor")
+            .asText();
+
+    mockMvc
+        .perform(get(repliesUrl).param("size", "2").param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.length()").value(1))
+        .andExpect(jsonPath("$.content[0].id").value(replies.get(2).getId()))
+        .andExpect(jsonPath("$.last").value(true));
+  }
+
+  @Test
+  @DisplayName("GET `/comments/{id}/replies` should return 404 when comment ID does not exist")
+  void getRepliesOfNonExistingComment() throws Exception {
+    String repliesUrl =
+        musicUrl + "/" + nonExistingId + "/comments/" + commentNonExistingId + "/replies";
+
+    mockMvc
+        .perform(get(repliesUrl))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message").value("Comment not found"))
+        .andExpect(jsonPath("$.path").value(repliesUrl));
+  }
+
+  @Test
+  @DisplayName("GET `/comments/stream` should push comments once their transaction commits")
+  void streamComments() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    MvcResult stream =
+        mockMvc
+            .perform(get(musicUrl + "/" + existingId + "/comments/stream"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // The test transaction never commits, so the comment is not announced
+    CommentDTO comment = createComment(existingId, validCommentDTO, token);
+
+    // Published outside of a transaction, as after a commit
+    Thread publisher =
+        Thread.ofVirtual()
+            .start(
+                () ->
+                    commentStreamBroker.publish(existingId, CommentStreamBroker.UPDATED, comment));
+    publisher.join();
+
+    // Events go out in order, had the creation been announced it would come before the update
+    String content = awaitContent(stream, "event:updated");
+    assertEquals(1, content.split("event:", -1).length - 1);
+    assertTrue(content.contains("\"id\":" + comment.getId()));
+
+    // The client goes away, which unsubscribes it from the broker
+    stream.getRequest().getAsyncContext().complete();
+  }
+
+  @Test
+  @DisplayName("GET `/comments/stream` should return 404 when music ID does not exist")
+  void streamCommentsOfNonExistingMusic() throws Exception {
+    mockMvc
+        .perform(get(musicUrl + "/" + nonExistingId + "/comments/stream"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message").value("Music not found"));
   }
 
   // POST test
@@ -231,6 +526,39 @@ public class CommentControllerTest {
             jsonPath("$.replies[0].author.id").value(replyDTO.getAuthor().getId().toString()));
   }
 
+  @Test
+  @DisplayName("POST `/comments` should return 422 when the reply would not fit the path column")
+  void postReplyBeyondMaxDepth() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    // A root one level short of the limit, as if it closed a chain of replies
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    entityManager.flush();
+    jdbcTemplate.update(
+        "UPDATE tb_comments SET path = ? WHERE id = ?",
+        "0".repeat((CommentPath.MAX_DEPTH - 1) * CommentPath.SEGMENT_LENGTH),
+        root.getId());
+    entityManager.clear();
+
+    CommentDTO deepest = createReply(root, "Deepest reply", token);
+    assertEquals(
+        CommentPath.MAX_DEPTH,
+        CommentPath.depth(repository.findById(deepest.getId()).orElseThrow().getPath()));
+
+    CommentDTO tooDeep = new CommentDTO();
+    tooDeep.setBody("One level too deep");
+    tooDeep.setParentId(deepest.getId());
+    mockMvc
+        .perform(
+            post(musicUrl + "/" + existingId + "/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(tooDeep))
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.errors[0].fieldName").value("parentId"));
+  }
+
   // DELETE test
   @Test
   @DisplayName("DELETE `/comments/{id}` should delete comment by ID")
@@ -287,6 +615,108 @@ public class CommentControllerTest {
     assertFalse(repository.findById(commentId).isPresent());
   }
 
+  @Test
+  @DisplayName("DELETE `/comments/{id}` should delete the whole subtree of the comment")
+  void deleteCommentWithReplies() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    // Root -> reply -> nested reply, with a sibling reply and a second thread left untouched
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    CommentDTO reply = createReply(root, "Reply", token);
+    CommentDTO nested = createReply(reply, "Nested reply", token);
+    CommentDTO sibling = createReply(root, "Sibling reply", token);
+    CommentDTO otherRoot = createComment(existingId, validCommentDTO, token);
+    CommentDTO otherReply = createReply(otherRoot, "Other reply", token);
+
+    assertEquals(
+        String.format("%019d%019d", root.getId(), reply.getId()),
+        repository.findById(nested.getId()).orElseThrow().getPath());
+    entityManager.flush();
+    entityManager.clear();
+
+    mockMvc
+        .perform(
+            delete(musicUrl + "/" + existingId + "/comments/" + reply.getId())
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isNoContent());
+
+    assertFalse(repository.existsById(reply.getId()));
+    assertFalse(repository.existsById(nested.getId()));
+    assertTrue(repository.existsById(root.getId()));
+    assertTrue(repository.existsById(sibling.getId()));
+    assertTrue(repository.existsById(otherReply.getId()));
+  }
+
+  @Test
+  @DisplayName("POST and DELETE `/comments` should keep the comment and reply counters in step")
+  void commentCounters() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    CommentDTO root = createComment(existingId, validCommentDTO, token);
+    CommentDTO reply = createReply(root, "Reply", token);
+    createReply(reply, "Nested reply", token);
+    createReply(root, "Sibling reply", token);
+
+    mockMvc
+        .perform(get(musicUrl + "/cursor"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value(existingId.toString()))
+        .andExpect(jsonPath("$.content[0].commentCount").value(4));
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId + "/comments"))
+        .andExpect(jsonPath("$.content[0].replyCount").value(2));
+
+    // The subtree of the reply goes, two comments and one reply of the root
+    mockMvc
+        .perform(
+            delete(musicUrl + "/" + existingId + "/comments/" + reply.getId())
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isNoContent());
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.commentCount").value(2));
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId + "/comments"))
+        .andExpect(jsonPath("$.content[0].replyCount").value(1));
+
+    // Drifted counters are put back by the reconciliation job
+    jdbcTemplate.update("UPDATE tb_music SET comment_count = 42 WHERE id = ?", existingId);
+    jdbcTemplate.update("UPDATE tb_comments SET reply_count = 7 WHERE id = ?", root.getId());
+
+    // Once the cached copy expired the drifted count is what gets cached and tagged
+    cacheManager.getCache(CacheConfig.MUSICS).clear();
+    entityManager.clear();
+    String driftedEtag =
+        mockMvc
+            .perform(get(musicUrl + "/" + existingId))
+            .andExpect(jsonPath("$.commentCount").value(42))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+    assertEquals(2, commentCounterReconciler.reconcile());
+    assertEquals(
+        2L,
+        jdbcTemplate.queryForObject(
+            "SELECT comment_count FROM tb_music WHERE id = ?", Long.class, existingId));
+    assertEquals(
+        1L,
+        jdbcTemplate.queryForObject(
+            "SELECT reply_count FROM tb_comments WHERE id = ?", Long.class, root.getId()));
+
+    // The reconciled music leaves the cache, clients holding the drifted tag get the right count.
+    // The persistence context is shared by the whole test, requests would each start a new one.
+    entityManager.clear();
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).header("If-None-Match", driftedEtag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.commentCount").value(2));
+  }
+
   @Test
   @DisplayName("DELETE `/comments/{id}` should return 404 when comment ID does not exist")
   void deleteCommentWhenIdDoesntExists() throws Exception {
@@ -395,6 +825,17 @@ public class CommentControllerTest {
 
   // Methods to help tests
 
+  // Events are written by the broker's sender threads, the response is read until one arrives
+  private static String awaitContent(MvcResult stream, String expected) throws Exception {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    String content = stream.getResponse().getContentAsString();
+    while (!content.contains(expected) && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+      content = stream.getResponse().getContentAsString();
+    }
+    return content;
+  }
+
   // Used to receive a valid token for a user by his email and password, also checks if the token is
   // valid and has the correct claims
   private String obtainAcessToken(String email, String password) throws Exception {
@@ -485,6 +926,14 @@ public class CommentControllerTest {
     return objectMapper.readValue(postResponse, CommentDTO.class);
   }
 
+  // Insert a reply with the given body to another comment
+  private CommentDTO createReply(CommentDTO parent, String body, String token) throws Exception {
+    CommentDTO replyDTO = new CommentDTO();
+    replyDTO.setBody(body);
+    replyDTO.setParentId(parent.getId());
+    return createComment(parent.getMusic().getId(), replyDTO, token);
+  }
+
   // Insert a valid comment as a reply to another comment and return the created reply comment as
   // `CommentDTO`
   private CommentDTO createReplyComment(CommentDTO dto, String token) throws Exception {
@@ -0,0 +1,151 @@
+package com.oryanend.tom_perfeito_api.controllers;
+
+import static com.oryanend.tom_perfeito_api.factory.MusicDTOFactory.createValidMusicDTO;
+import static com.oryanend.tom_perfeito_api.factory.UserDTOFactory.createUserDTOTemplate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oryanend.tom_perfeito_api.dto.LyricChordDTO;
+import com.oryanend.tom_perfeito_api.dto.LyricDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicDTO;
+import com.oryanend.tom_perfeito_api.dto.MusicPatchDTO;
+import com.oryanend.tom_perfeito_api.dto.UserDTO;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+// Music endpoints under PACKED chord storage. The context runs on its own in-memory database, the
+// startup packer rewrites the seeded lyrics and must not touch the database the other tests share.
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@TestPropertySource(
+    properties = {"lyric.chord-storage=PACKED", "spring.datasource.url=jdbc:h2:mem:packedchords"})
+public class MusicControllerPackedChordsTest {
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private EntityManager entityManager;
+
+  private String musicUrl;
+  private UserDTO validUserDTO;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @BeforeEach
+  void setUp() {
+    musicUrl = "/musics";
+    validUserDTO = createUserDTOTemplate();
+  }
+
+  @Test
+  @DisplayName("POST and PATCH `/musics` should write markers to the packed column only")
+  void packedChordStorageShouldRoundTrip() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+
+    MusicDTO createdMusic = createMusic(createValidMusicDTO(), token);
+    UUID id = createdMusic.getId();
+    entityManager.flush();
+    assertEquals(0L, lyricChordRows());
+
+    mockMvc
+        .perform(get(musicUrl + "/" + id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords.length()").value(2))
+        .andExpect(jsonPath("$.lyric.chords[0].chordId").value(1))
+        .andExpect(jsonPath("$.lyric.chords[1].chordId").value(2))
+        .andExpect(jsonPath("$.lyric.chords[1].position").value(15));
+
+    // Edits rewrite the column
+    MusicPatchDTO patchDTO = new MusicPatchDTO();
+    patchDTO.setLyric(
+        new LyricDTO(null, List.of(new LyricChordDTO(3L, 300), new LyricChordDTO(2L, 15))));
+
+    mockMvc
+        .perform(
+            patch(musicUrl + "/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patchDTO))
+                .header("Authorization", "Bearer " + token)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords.length()").value(2))
+        .andExpect(jsonPath("$.lyric.chords[0].position").value(15))
+        .andExpect(jsonPath("$.lyric.chords[1].chordId").value(3))
+        .andExpect(jsonPath("$.lyric.chords[1].position").value(300));
+    entityManager.flush();
+    assertEquals(0L, lyricChordRows());
+  }
+
+  // Methods to help tests
+
+  private long lyricChordRows() {
+    return ((Number)
+            entityManager
+                .createNativeQuery("SELECT COUNT(*) FROM tb_lyric_chord")
+                .getSingleResult())
+        .longValue();
+  }
+
+  private String registerUserAndObtainAcessToken(UserDTO dto) throws Exception {
+    mockMvc
+        .perform(
+            post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto))
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated());
+
+    ResultActions tokenResult =
+        mockMvc.perform(
+            post("/auth/login")
+                .with(httpBasic(clientId, clientSecret))
+                .param("email", dto.getEmail())
+                .param("password", dto.getPassword())
+                .param("grant_type", "password")
+                .accept(MediaType.APPLICATION_JSON));
+
+    tokenResult.andExpect(status().isOk());
+
+    return objectMapper
+        .readTree(tokenResult.andReturn().getResponse().getContentAsString())
+        .get("access_token")
+        .asText();
+  }
+
+  private MusicDTO createMusic(MusicDTO dto, String token) throws Exception {
+    ResultActions postResult =
+        mockMvc.perform(
+            post(musicUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto))
+                .header("Authorization", "Bearer " + token)
+                .accept(MediaType.APPLICATION_JSON));
+
+    postResult.andExpect(status().isCreated());
+
+    return objectMapper.readValue(
+        postResult.andReturn().getResponse().getContentAsString(), MusicDTO.class);
+  }
+}
@@ -1,23 +1,45 @@
 package com.oryanend.tom_perfeito_api.controllers;
 
+import static com.oryanend.tom_perfeito_api.factory.ChordDTOFactory.createChordDTO;
+import static com.oryanend.tom_perfeito_api.factory.LyricDTOFactory.createValidLyricDTO;
 import static com.oryanend.tom_perfeito_api.factory.MusicDTOFactory.*;
 import static com.oryanend.tom_perfeito_api.factory.UserDTOFactory.createAdminUserDTOTemplate;
 import static com.oryanend.tom_perfeito_api.factory.UserDTOFactory.createUserDTOTemplate;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oryanend.tom_perfeito_api.config.CacheConfig;
 import com.oryanend.tom_perfeito_api.dto.*;
+import com.oryanend.tom_perfeito_api.entities.Lyric;
+import com.oryanend.tom_perfeito_api.entities.Music;
 import com.oryanend.tom_perfeito_api.entities.Role;
+import com.oryanend.tom_perfeito_api.entities.enums.ChordType;
+import com.oryanend.tom_perfeito_api.entities.enums.NoteName;
 import com.oryanend.tom_perfeito_api.repositories.MusicRepository;
+import com.oryanend.tom_perfeito_api.repositories.NoteRepository;
 import com.oryanend.tom_perfeito_api.repositories.RoleRepository;
+import com.oryanend.tom_perfeito_api.services.ChordService;
+import com.oryanend.tom_perfeito_api.services.LyricChordPacker;
+import com.oryanend.tom_perfeito_api.services.MusicService;
+import com.oryanend.tom_perfeito_api.util.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,10 +47,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -42,6 +70,20 @@ public class MusicControllerTest {
 
   @Autowired private RoleRepository roleRepository;
 
+  @Autowired private EntityManager entityManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private MusicService musicService;
+
+  @Autowired private ChordService chordService;
+
+  @Autowired private NoteRepository noteRepository;
+
+  @Autowired private LyricChordPacker lyricChordPacker;
+
+  @Autowired private CacheManager cacheManager;
+
   private String musicUrl, authRegisterUrl, authLoginUrl;
   private UUID existingId, nonExistingId;
   private String existingMusicName, nonExistingMusicName;
@@ -90,6 +132,14 @@ public class MusicControllerTest {
     adminUserDTO.addRole(adminRoleDTO);
   }
 
+  // The search and chord indexes follow committed rows only, rebuilding them once the test
+  // transaction is rolled back keeps one test's rows out of the next one's results
+  @AfterTransaction
+  void rebuildSearchIndexes() {
+    musicService.buildSearchIndex();
+    chordService.buildChordIndex();
+  }
+
   // GET Tests
   @Test
   @DisplayName("GET `/musics` should return paged list of musics")
@@ -99,6 +149,26 @@ public class MusicControllerTest {
     result.andExpect(status().isOk()).andExpect(jsonPath("$.content").isArray());
   }
 
+  @Test
+  @DisplayName("GET `/musics` should run one page query and one count query for a 100-row page")
+  void findAllShouldNotLoadLyricsPerRow() throws Exception {
+    List<Music> musics = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Music music =
+          new Music(null, "Music " + i, "Description " + i, LocalDate.of(2000, 1, 1), null, null);
+      Lyric lyric = new Lyric(null, "Lyric " + i);
+      lyric.setMusic(music);
+      music.setLyric(lyric);
+      musics.add(music);
+    }
+    repository.saveAll(musics);
+
+    long statements =
+        countStatements(get(musicUrl).param("size", "100"), "$.content.length()", 100);
+
+    assertEquals(2, statements);
+  }
+
   @Test
   @DisplayName("GET `/musics` should return paged list of musics sorted by `name`")
   void findByNameWhenContainsName() throws Exception {
@@ -123,7 +193,45 @@ public class MusicControllerTest {
         .andExpect(jsonPath("$.content[0].title").value(validMusicDTO.getTitle()))
         .andExpect(jsonPath("$.content[0].description").value(validMusicDTO.getDescription()))
         .andExpect(jsonPath("$.content[0].link").exists())
-        .andExpect(jsonPath("$.content[0].link").value(containsString(String.valueOf(existingId))));
+        .andExpect(jsonPath("$.content[0].link").value(containsString(String.valueOf(existingId))))
+        .andExpect(jsonPath("$.content[0].link").value("http://localhost/musics/" + existingId));
+  }
+
+  @Test
+  @DisplayName("GET `/musics` with `fuzzy` should tolerate missing accents and typos in `name`")
+  void findByNameWhenFuzzy() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    MusicDTO eduardoEMonicaDTO = createValidMusicDTO();
+    eduardoEMonicaDTO.setTitle("Eduardo e Mônica");
+    eduardoEMonicaDTO.setDescription("Uma música da Legião Urbana.");
+    MusicDTO eduardoEMonica = createMusic(eduardoEMonicaDTO, registerUserAndObtainAcessToken);
+
+    MusicDTO coracaoDTO = createValidMusicDTO();
+    coracaoDTO.setTitle("Coração de Estudante");
+    coracaoDTO.setDescription("Uma música de Milton Nascimento.");
+    MusicDTO coracao = createMusic(coracaoDTO, registerUserAndObtainAcessToken);
+    runAfterCommit();
+
+    mockMvc
+        .perform(
+            get(musicUrl)
+                .param("name", "eduard e mnica")
+                .param("fuzzy", "true")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value(eduardoEMonica.getId().toString()))
+        .andExpect(jsonPath("$.content[0].title").value(eduardoEMonicaDTO.getTitle()));
+
+    mockMvc
+        .perform(
+            get(musicUrl)
+                .param("name", "coracao")
+                .param("fuzzy", "true")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value(coracao.getId().toString()));
   }
 
   @Test
@@ -147,6 +255,128 @@ public class MusicControllerTest {
         .andExpect(jsonPath("$.path").value(musicUrl));
   }
 
+  @Test
+  @DisplayName("GET `/musics/cursor` should page newest musics first through `nextCursor`")
+  void findAllByCursorShouldFollowNextCursor() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    List<MusicDTO> created = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MusicDTO dto = createValidMusicDTO();
+      dto.setTitle("Cursor Music " + i);
+      created.add(createMusic(dto, registerUserAndObtainAcessToken));
+    }
+
+    String firstPage =
+        mockMvc
+            .perform(get(musicUrl + "/cursor").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(2))
+            .andExpect(jsonPath("$.content[0].id").value(created.get(2).getId().toString()))
+            .andExpect(jsonPath("$.content[1].id").value(created.get(1).getId().toString()))
+            .andExpect(jsonPath("$.nextCursor").exists())
+            .andExpect(jsonPath("$.last").value(false))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+    mockMvc
+        .perform(get(musicUrl + "/cursor").param("size", "2").param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value(created.get(0).getId().toString()));
+  }
+
+  @Test
+  @DisplayName("GET `/musics/cursor` should return 400 when `cursor` is malformed")
+  void findAllByCursorWhenCursorIsInvalid() throws Exception {
+    mockMvc
+        .perform(get(musicUrl + "/cursor").param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Invalid cursor"))
+        .andExpect(jsonPath("$.status").value(400))
+        .andExpect(jsonPath("$.path").value(musicUrl + "/cursor"));
+  }
+
+  @Test
+  @DisplayName("GET `/musics/search` should rank musics matching title, description and lyric")
+  void searchShouldMatchAllTextFields() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    // Not searchable before the transaction commits
+    mockMvc
+        .perform(get(musicUrl + "/search").param("q", "iconica lenn peop"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content").isEmpty())
+        .andExpect(jsonPath("$.totalElements").value(0));
+    runAfterCommit();
+
+    // Terms spread over description and lyric, without accents and partially typed
+    ResultActions result =
+        mockMvc.perform(
+            get(musicUrl + "/search")
+                .param("q", "iconica lenn peop")
+                .accept(MediaType.APPLICATION_JSON));
+
+    result
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content").isArray())
+        .andExpect(jsonPath("$.content[0].id").value(existingId.toString()))
+        .andExpect(jsonPath("$.content[0].title").value(validMusicDTO.getTitle()))
+        .andExpect(jsonPath("$.content[0].link").value(containsString(existingId.toString())));
+  }
+
+  @Test
+  @DisplayName("GET `/musics/search` should reflect updated and deleted musics")
+  void searchShouldFollowUpdatesAndDeletes() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    // Update the description, so "lennon" should no longer match
+    mockMvc
+        .perform(
+            patch(musicUrl + "/" + existingId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validMusicPatchDTO))
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+    runAfterCommit();
+
+    mockMvc
+        .perform(get(musicUrl + "/search").param("q", "lennon"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content").isEmpty());
+
+    mockMvc
+        .perform(get(musicUrl + "/search").param("q", "atualizada"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value(existingId.toString()));
+
+    // Delete the music, so nothing should match anymore
+    mockMvc
+        .perform(
+            delete(musicUrl + "/" + existingId)
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken))
+        .andExpect(status().isNoContent());
+    runAfterCommit();
+
+    mockMvc
+        .perform(get(musicUrl + "/search").param("q", "atualizada"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content").isEmpty());
+  }
+
   @Test
   @DisplayName("GET `/musics/{id}` should return 200 when `id` doesn't exists")
   void findByIdWhenIdExists() throws Exception {
@@ -207,6 +437,334 @@ public class MusicControllerTest {
         .andExpect(jsonPath("$.path").value(musicUrl + "/" + nonExistingId));
   }
 
+  @Test
+  @DisplayName(
+      "GET `/musics/{id}` should run the same number of statements whatever the chord count")
+  void findByIdShouldRunFixedNumberOfStatements() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Create a music with two chords and another one with a hundred chords
+    MusicDTO fewChordsMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+
+    MusicDTO manyChordsMusicDTO = createValidMusicDTO();
+    manyChordsMusicDTO.setTitle("Imagine (Extended)");
+    manyChordsMusicDTO.setDescription("Uma versão estendida de Imagine.");
+    for (int i = 0; i < 100; i++) {
+      manyChordsMusicDTO.getLyric().addChord((long) (i % 15) + 1, i * 4);
+    }
+    MusicDTO manyChordsMusic = createMusic(manyChordsMusicDTO, registerUserAndObtainAcessToken);
+
+    long fewChordsStatements =
+        countStatements(get(musicUrl + "/" + fewChordsMusic.getId()), "$.lyric.chords.length()", 2);
+    long manyChordsStatements =
+        countStatements(
+            get(musicUrl + "/" + manyChordsMusic.getId()), "$.lyric.chords.length()", 102);
+
+    // The version lookup, then the graph query
+    assertEquals(fewChordsStatements, manyChordsStatements);
+    assertTrue(manyChordsStatements <= 3);
+  }
+
+  @Test
+  @DisplayName("GET `/musics/{id}` should be served from cache until the music is updated")
+  void findByIdShouldBeCachedUntilUpdated() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    countStatements(get(musicUrl + "/" + existingId), "$.title", validMusicDTO.getTitle());
+    long cachedStatements =
+        countStatements(get(musicUrl + "/" + existingId), "$.title", validMusicDTO.getTitle());
+
+    assertEquals(0, cachedStatements);
+
+    mockMvc
+        .perform(
+            patch(musicUrl + "/" + existingId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validMusicPatchDTO))
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    long reloadStatements =
+        countStatements(get(musicUrl + "/" + existingId), "$.title", validMusicPatchDTO.getTitle());
+
+    assertTrue(reloadStatements > 0);
+  }
+
+  @Test
+  @DisplayName("GET `/musics/{id}` with `fields` should leave the lyric out without reading it")
+  void findByIdWithSparseFieldset() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    // The version lookup, then the music row
+    long statements =
+        countStatements(
+            get(musicUrl + "/" + existingId).param("fields", "id,title"),
+            "$.title",
+            validMusicDTO.getTitle());
+    assertEquals(2, statements);
+
+    String etag =
+        mockMvc
+            .perform(get(musicUrl + "/" + existingId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lyric.text").exists())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+    // Once the full music is cached the sparse view comes from it, under its own validator
+    long cachedStatements =
+        countStatements(
+            get(musicUrl + "/" + existingId).param("fields", "id,title"),
+            "$.title",
+            validMusicDTO.getTitle());
+    assertEquals(0, cachedStatements);
+
+    String sparseEtag =
+        mockMvc
+            .perform(
+                get(musicUrl + "/" + existingId)
+                    .param("fields", "id,title")
+                    .header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(etag)))
+            .andExpect(jsonPath("$.id").value(existingId.toString()))
+            .andExpect(jsonPath("$.description").doesNotExist())
+            .andExpect(jsonPath("$.lyric").doesNotExist())
+            .andExpect(jsonPath("$.createdBy").doesNotExist())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+    // The validator carries a digest of the canonical fieldset, the order of the names is moot
+    assertTrue(sparseEtag.endsWith(FieldSelection.of(List.of("title,id"), null).digest() + "\""));
+    mockMvc
+        .perform(
+            get(musicUrl + "/" + existingId)
+                .param("fields", "title,id")
+                .header("If-None-Match", sparseEtag))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  @DisplayName("GET `/musics/{id}` from the cache should build its links for every request")
+  void findByIdShouldBuildCachedLinksPerRequest() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.createdBy.link").value(startsWith("http://localhost/users/")));
+
+    // Served from the cache filled by the request above
+    long cachedStatements =
+        countStatements(
+            get(musicUrl + "/" + existingId)
+                .with(
+                    request -> {
+                      request.setServerName("mirror.tomperfeito.com");
+                      return request;
+                    }),
+            "$.createdBy.link",
+            "http://mirror.tomperfeito.com/users/" + createdMusic.getCreatedBy().getId());
+    assertEquals(0, cachedStatements);
+  }
+
+  @Test
+  @DisplayName(
+      "GET `/musics/{id}` should answer 304 to a matching `If-None-Match` or `If-Modified-Since`")
+  void findByIdShouldReturnNotModifiedForCurrentVersion() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Extract the created music ID from the POST response
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    MockHttpServletResponse firstResponse =
+        mockMvc
+            .perform(get(musicUrl + "/" + existingId))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(header().exists("Last-Modified"))
+            .andReturn()
+            .getResponse();
+    String etag = firstResponse.getHeader("ETag");
+    String lastModified = firstResponse.getHeader("Last-Modified");
+
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    // The version comes from the cached music
+    assertEquals(0, statistics.getPrepareStatementCount());
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).header("If-Modified-Since", lastModified))
+        .andExpect(status().isNotModified());
+
+    // A lyric only update still moves the version
+    MusicPatchDTO lyricPatch = new MusicPatchDTO();
+    lyricPatch.setLyric(createValidLyricDTO());
+    lyricPatch.getLyric().setText("Outra letra");
+    mockMvc
+        .perform(
+            patch(musicUrl + "/" + existingId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lyricPatch))
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).header("If-None-Match", etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", not(etag)))
+        .andExpect(jsonPath("$.lyric.text").value("Outra letra"));
+  }
+
+  @Test
+  @DisplayName("GET `/musics/{id}` should not answer 304 once a comment changed the comment count")
+  void findByIdShouldReturnNewVersionAfterComment() throws Exception {
+    String token = registerUserAndObtainAcessToken(validUserDTO);
+    existingId = createMusic(validMusicDTO, token).getId();
+
+    MockHttpServletResponse plain =
+        mockMvc.perform(get(musicUrl + "/" + existingId)).andReturn().getResponse();
+    MockHttpServletResponse transposed =
+        mockMvc
+            .perform(get(musicUrl + "/" + existingId).param("transpose", "2"))
+            .andExpect(jsonPath("$.commentCount").value(0))
+            .andReturn()
+            .getResponse();
+
+    CommentDTO comment = new CommentDTO();
+    comment.setBody("Great song!");
+    mockMvc
+        .perform(
+            post(musicUrl + "/" + existingId + "/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(comment))
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isCreated());
+
+    mockMvc
+        .perform(
+            get(musicUrl + "/" + existingId)
+                .header("If-None-Match", plain.getHeader("ETag"))
+                .header("If-Modified-Since", plain.getHeader("Last-Modified")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.commentCount").value(1))
+        // A comment is not an edit of the song
+        .andExpect(header().string("Last-Modified", plain.getHeader("Last-Modified")))
+        .andExpect(
+            jsonPath("$.updatedAt")
+                .value(
+                    objectMapper.readTree(plain.getContentAsString()).get("updatedAt").asText()));
+
+    // The cached transposition of the old version is not served either
+    mockMvc
+        .perform(
+            get(musicUrl + "/" + existingId)
+                .param("transpose", "2")
+                .header("If-None-Match", transposed.getHeader("ETag")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.commentCount").value(1));
+  }
+
+  @Test
+  @DisplayName(
+      "GET `/musics/{id}` with `transpose` or `capo` should shift every chord of the lyric")
+  void findByIdWhenTransposed() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Lyric chords are A Minor and G Major
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).param("transpose", "+2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords[0].chordId").value(5))
+        .andExpect(jsonPath("$.lyric.chords[0].symbol").value("Bm"))
+        .andExpect(jsonPath("$.lyric.chords[0].position").value(0))
+        .andExpect(jsonPath("$.lyric.chords[1].chordId").doesNotExist())
+        .andExpect(jsonPath("$.lyric.chords[1].symbol").value("A"));
+
+    // Capo on the second fret, the shapes go two semitones down
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).param("capo", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords[0].symbol").value("Gm"))
+        .andExpect(jsonPath("$.lyric.chords[1].chordId").value(6))
+        .andExpect(jsonPath("$.lyric.chords[1].symbol").value("F"));
+
+    // Served again without any database round trip
+    long cachedStatements =
+        countStatements(
+            get(musicUrl + "/" + existingId).param("capo", "2"), "$.lyric.chords[1].symbol", "F");
+    assertEquals(0, cachedStatements);
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords[0].chordId").value(1))
+        .andExpect(jsonPath("$.lyric.chords[0].symbol").doesNotExist());
+  }
+
+  @Test
+  @DisplayName(
+      "GET `/musics/{id}?transpose=` should keep the stored chord type when its notes spell another")
+  void findByIdWhenTransposedKeepsChordType() throws Exception {
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Dsus2 and Asus4 share D, E and A, Dsus2 being stored first
+    List<ChordDTO> chords =
+        chordService.insertAll(
+            List.of(
+                createChordDTO(noteRepository, NoteName.D, ChordType.SUSPENDED2, 3L, 5L, 10L),
+                createChordDTO(noteRepository, NoteName.A, ChordType.SUSPENDED4, 10L, 3L, 5L),
+                createChordDTO(noteRepository, NoteName.G, ChordType.SUSPENDED4, 8L, 1L, 3L)));
+    runAfterCommit();
+
+    MusicDTO musicDTO = createValidMusicDTO();
+    LyricDTO lyricDTO = new LyricDTO();
+    lyricDTO.setText("Imagine all the people...");
+    lyricDTO.addChord(chords.get(2).getId(), 0);
+    musicDTO.setLyric(lyricDTO);
+    existingId = createMusic(musicDTO, registerUserAndObtainAcessToken).getId();
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).param("transpose", "+2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords[0].chordId").value(chords.get(1).getId()))
+        .andExpect(jsonPath("$.lyric.chords[0].symbol").value("Asus4"));
+  }
+
   // POST Tests
   @Test
   @DisplayName("POST `/musics` should insert a new music")
@@ -286,6 +844,134 @@ public class MusicControllerTest {
     assertDoesNotThrow(() -> Instant.parse(updatedAtStr));
   }
 
+  @Test
+  @DisplayName("POST `/musics` should insert the chords of a 300-chord lyric in JDBC batches")
+  void insertShouldBatchLyricChords() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    MusicDTO dto = createValidMusicDTO();
+    dto.getLyric().getChords().clear();
+    for (int i = 0; i < 300; i++) {
+      dto.getLyric().addChord((long) (i % 15) + 1, i * 4);
+    }
+
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(
+            post(musicUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto))
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.lyric.chords.length()").value(300));
+    entityManager.flush();
+
+    // Blocks of 50 sequence values and batches of 50 inserts, instead of one round trip per row
+    assertEquals(302, statistics.getEntityInsertCount());
+    assertTrue(statistics.getPrepareStatementCount() < 20);
+  }
+
+  @Test
+  @DisplayName("POST `/musics/import` should store valid NDJSON lines and report the others")
+  void importShouldStoreValidLinesAndReportErrors() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MusicDTO dto = createValidMusicDTO();
+      dto.setTitle("Bulkimported " + i);
+      lines.add(objectMapper.writeValueAsString(dto));
+    }
+    lines.add("{\"title\": ");
+    lines.add(objectMapper.writeValueAsString(withoutTitleMusicDTO));
+    MusicDTO unknownChord = createValidMusicDTO();
+    unknownChord.getLyric().addChord(999L, 30);
+    lines.add(objectMapper.writeValueAsString(unknownChord));
+
+    ResultActions result =
+        mockMvc.perform(
+            post(musicUrl + "/import")
+                .contentType("application/x-ndjson")
+                .content(String.join("\n", lines) + "\n\n")
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON));
+
+    result
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.received").value(6))
+        .andExpect(jsonPath("$.imported").value(3))
+        .andExpect(jsonPath("$.failed").value(3))
+        .andExpect(jsonPath("$.failedChunks").isEmpty())
+        .andExpect(jsonPath("$.errors[0].line").value(4))
+        .andExpect(jsonPath("$.errors[0].message").value(containsString("Malformed JSON")))
+        .andExpect(jsonPath("$.errors[1].line").value(5))
+        .andExpect(jsonPath("$.errors[1].message").value("Title cannot be null"))
+        .andExpect(jsonPath("$.errors[2].line").value(6))
+        .andExpect(jsonPath("$.errors[2].message").value("Chords not found: [999]"));
+
+    // Imported rows are searchable and readable through the regular endpoints
+    String search =
+        mockMvc
+            .perform(get(musicUrl + "/search").param("q", "bulkimported"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(3))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String importedId = objectMapper.readTree(search).get("content").get(0).get("id").asText();
+
+    mockMvc
+        .perform(get(musicUrl + "/" + importedId).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.text").value(validMusicDTO.getLyric().getText()))
+        .andExpect(jsonPath("$.lyric.chords.length()").value(2))
+        .andExpect(jsonPath("$.createdBy.id").exists());
+  }
+
+  @Test
+  @DisplayName("POST `/musics` should return 422 listing unknown chords before writing anything")
+  void insertMusicWithUnknownChords() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    MusicDTO dto = createValidMusicDTO();
+    dto.getLyric().addChord(1000L, 30);
+    dto.getLyric().addChord(999L, 45);
+    dto.getLyric().addChord(1000L, 60);
+
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(
+            post(musicUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto))
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.status").value(422))
+        .andExpect(jsonPath("$.error").value("Validation Exception"))
+        .andExpect(jsonPath("$.message").value("Chords not found: [999, 1000]"))
+        .andExpect(jsonPath("$.path").value(musicUrl))
+        .andExpect(jsonPath("$.errors.length()").value(2))
+        .andExpect(jsonPath("$.errors[0].fieldName").value("lyric.chords.chordId"))
+        .andExpect(jsonPath("$.errors[0].message").value("Chord not found: 999"))
+        .andExpect(jsonPath("$.errors[1].message").value("Chord not found: 1000"));
+    entityManager.flush();
+
+    assertEquals(0, statistics.getEntityInsertCount());
+  }
+
   @Test
   @DisplayName("POST `/musics` should return 422 when trying to insert a music without title")
   void insertMusicWithoutTitle() throws Exception {
@@ -434,6 +1120,89 @@ public class MusicControllerTest {
     assertDoesNotThrow(() -> LocalDate.parse(releaseDateStr));
   }
 
+  @Test
+  @DisplayName("PATCH `/musics/{id}` should only write the chord markers that changed")
+  void updateMusicShouldDiffLyricChords() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Stored markers are chord 1 at 0 and chord 2 at 15
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+
+    // Chord 1 stays, chord 2 moves to 20 and chord 3 is added at 40
+    MusicPatchDTO patchDTO = new MusicPatchDTO();
+    patchDTO.setLyric(
+        new LyricDTO(
+            null,
+            List.of(
+                new LyricChordDTO(1L, 0), new LyricChordDTO(2L, 20), new LyricChordDTO(3L, 40))));
+
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(
+            patch(musicUrl + "/" + existingId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patchDTO))
+                .header("Authorization", "Bearer " + registerUserAndObtainAcessToken)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.text").value(validMusicDTO.getLyric().getText()))
+        .andExpect(jsonPath("$.lyric.chords.length()").value(3));
+    entityManager.flush();
+
+    // The music version and the moved marker are updated, the new marker is the only insert
+    assertEquals(1, statistics.getEntityInsertCount());
+    assertEquals(2, statistics.getEntityUpdateCount());
+    assertEquals(0, statistics.getEntityDeleteCount());
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords[?(@.chordId == 2)].position").value(20))
+        .andExpect(jsonPath("$.lyric.chords[?(@.chordId == 3)].position").value(40));
+  }
+
+  @Test
+  @DisplayName("Packed chord storage should keep every marker readable through the API")
+  void packedChordStorageShouldRoundTrip() throws Exception {
+    // Get token user
+    String registerUserAndObtainAcessToken = registerUserAndObtainAcessToken(validUserDTO);
+
+    // Stored as rows, then moved to the packed column by the migration path
+    MusicDTO createdMusic = createMusic(validMusicDTO, registerUserAndObtainAcessToken);
+    existingId = createdMusic.getId();
+    entityManager.flush();
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+    assertNotNull(cacheManager.getCache(CacheConfig.MUSICS).get(existingId));
+
+    // Packing rewrites the lyric behind JPA, the cached music goes with it
+    assertTrue(lyricChordPacker.packAll() >= 1);
+    assertNull(cacheManager.getCache(CacheConfig.MUSICS).get(existingId));
+    entityManager.clear();
+    assertEquals(
+        0L,
+        ((Number)
+                entityManager
+                    .createNativeQuery("SELECT COUNT(*) FROM tb_lyric_chord")
+                    .getSingleResult())
+            .longValue());
+
+    mockMvc
+        .perform(get(musicUrl + "/" + existingId).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lyric.chords.length()").value(2))
+        .andExpect(jsonPath("$.lyric.chords[0].chordId").value(1))
+        .andExpect(jsonPath("$.lyric.chords[1].chordId").value(2))
+        .andExpect(jsonPath("$.lyric.chords[1].position").value(15));
+  }
+
   @Test
   @DisplayName("PATCH `/musics/{id}` should update music when is admin")
   void updateMusicWithAdminCredentials() throws Exception {
@@ -615,6 +1384,25 @@ public class MusicControllerTest {
 
   // Methods to help tests
 
+  // Perform the request against an empty persistence context, check the expected JSON value and
+  // return how many JDBC statements were prepared to answer it
+  private long countStatements(
+      MockHttpServletRequestBuilder request, String jsonPathExpression, Object expectedValue)
+      throws Exception {
+    entityManager.flush();
+    entityManager.clear();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc
+        .perform(request.accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath(jsonPathExpression).value(expectedValue));
+
+    return statistics.getPrepareStatementCount();
+  }
+
   // Used to receive a valid token for a user by his email and password, also checks if the token is
   // valid and has the correct claims
   private String obtainAcessToken(String email, String password) throws Exception {
@@ -660,6 +1448,13 @@ public class MusicControllerTest {
     return obtainAcessToken(registeredUser.getEmail(), dto.getPassword());
   }
 
+  // The test transaction never commits, so the after-commit work registered so far is run by
+  // hand. It is replayed in order every time, the last write of each music wins.
+  private void runAfterCommit() {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+  }
+
   // Insert a valid music and return the created music as `MusicDTO`
   private MusicDTO createMusic(MusicDTO dto, String token) throws Exception {
     String jsonBody = objectMapper.writeValueAsString(dto);
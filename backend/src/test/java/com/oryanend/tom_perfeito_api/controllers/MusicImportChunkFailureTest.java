@@ -0,0 +1,142 @@
+package com.oryanend.tom_perfeito_api.controllers;
+
+import static com.oryanend.tom_perfeito_api.factory.MusicDTOFactory.createValidMusicDTO;
+import static com.oryanend.tom_perfeito_api.factory.UserDTOFactory.createUserDTOTemplate;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oryanend.tom_perfeito_api.dto.MusicDTO;
+import com.oryanend.tom_perfeito_api.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+// NDJSON import when the database fails a whole chunk. The context spies on the JdbcTemplate and
+// imports two records per chunk, so it runs on its own and leaves the shared context untouched.
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@TestPropertySource(properties = "music.import.chunk-size=2")
+public class MusicImportChunkFailureTest {
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @SpyBean private JdbcTemplate jdbcTemplate;
+
+  @Value("${security.client-id}")
+  private String clientId;
+
+  @Value("${security.client-secret}")
+  private String clientSecret;
+
+  @Test
+  @DisplayName("POST `/musics/import` should report a failed chunk and keep importing")
+  void importShouldReportFailedChunkAndContinue() throws Exception {
+    String token = registerUserAndObtainAcessToken(createUserDTOTemplate());
+
+    // The second chunk (lines 3 and 4) times out on its music insert
+    AtomicInteger musicBatches = new AtomicInteger();
+    doAnswer(
+            invocation -> {
+              if (musicBatches.incrementAndGet() == 2) {
+                throw new QueryTimeoutException("Lock wait timeout");
+              }
+              return invocation.callRealMethod();
+            })
+        .when(jdbcTemplate)
+        .batchUpdate(
+            startsWith("INSERT INTO tb_music"),
+            anyCollection(),
+            anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+
+    List<String> lines = new ArrayList<>();
+    for (int i = 1; i <= 6; i++) {
+      MusicDTO dto = createValidMusicDTO();
+      dto.setTitle("Chunkimported " + i);
+      lines.add(objectMapper.writeValueAsString(dto));
+    }
+
+    mockMvc
+        .perform(
+            post("/musics/import")
+                .contentType("application/x-ndjson")
+                .content(String.join("\n", lines))
+                .header("Authorization", "Bearer " + token)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.received").value(6))
+        .andExpect(jsonPath("$.imported").value(4))
+        .andExpect(jsonPath("$.failed").value(2))
+        .andExpect(jsonPath("$.errors").isEmpty())
+        .andExpect(jsonPath("$.failedChunks.length()").value(1))
+        .andExpect(jsonPath("$.failedChunks[0].firstLine").value(3))
+        .andExpect(jsonPath("$.failedChunks[0].lastLine").value(4))
+        .andExpect(jsonPath("$.failedChunks[0].records").value(2))
+        .andExpect(
+            jsonPath("$.failedChunks[0].message").value("Database error: QueryTimeoutException"));
+
+    // The chunks on either side of the failure were written
+    mockMvc
+        .perform(get("/musics/search").param("q", "chunkimported").param("size", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalElements").value(4))
+        .andExpect(jsonPath("$.content[?(@.title == 'Chunkimported 3')]").isEmpty())
+        .andExpect(jsonPath("$.content[?(@.title == 'Chunkimported 4')]").isEmpty())
+        .andExpect(jsonPath("$.content[?(@.title == 'Chunkimported 5')]").isNotEmpty())
+        .andExpect(jsonPath("$.content[?(@.title == 'Chunkimported 6')]").isNotEmpty());
+  }
+
+  // Methods to help tests
+
+  private String registerUserAndObtainAcessToken(UserDTO dto) throws Exception {
+    mockMvc
+        .perform(
+            post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto))
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isCreated());
+
+    ResultActions tokenResult =
+        mockMvc.perform(
+            post("/auth/login")
+                .with(httpBasic(clientId, clientSecret))
+                .param("email", dto.getEmail())
+                .param("password", dto.getPassword())
+                .param("grant_type", "password")
+                .accept(MediaType.APPLICATION_JSON));
+
+    tokenResult.andExpect(status().isOk());
+
+    return objectMapper
+        .readTree(tokenResult.andReturn().getResponse().getContentAsString())
+        .get("access_token")
+        .asText();
+  }
+}
@@ -1,6 +1,8 @@
 package com.oryanend.tom_perfeito_api.controllers;
 
 import static com.oryanend.tom_perfeito_api.factory.NoteDTOFactory.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -8,6 +10,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oryanend.tom_perfeito_api.dto.NoteDTO;
+import com.oryanend.tom_perfeito_api.services.NoteService;
+import com.oryanend.tom_perfeito_api.services.harmony.NoteRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +19,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -27,9 +34,20 @@ public class NoteControllerTest {
 
   @Autowired private ObjectMapper objectMapper;
 
+  @Autowired private NoteService noteService;
+
+  @Autowired private NoteRegistry noteRegistry;
+
   private String noteUrl;
   private NoteDTO validNoteDTO, nullNameNoteDTO, nullAccidentalNoteDTO;
 
+  // The registry follows committed rows only, rebuilding it once the test transaction is rolled
+  // back keeps one test's notes out of the next one
+  @AfterTransaction
+  void rebuildNoteRegistry() {
+    noteService.buildNoteRegistry();
+  }
+
   @BeforeEach
   void setUp() {
     noteUrl = "/notes";
@@ -74,6 +92,12 @@ public class NoteControllerTest {
         .andExpect(jsonPath("$.name").value("B"))
         .andExpect(jsonPath("$.accidental").value("NATURAL"))
         .andExpect(jsonPath("$.chords").isArray());
+
+    // Registered for chords only once the insert commits
+    assertNull(noteRegistry.get(13L));
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertEquals("B", noteRegistry.get(13L).getName().name());
   }
 
   @Test
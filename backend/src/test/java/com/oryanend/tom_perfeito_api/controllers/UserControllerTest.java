@@ -125,6 +125,25 @@ public class UserControllerTest {
         .andExpect(jsonPath("$.roles[*].authority", hasItem("ROLE_CLIENT")));
   }
 
+  @Test
+  @DisplayName("GET `/users/{id}` with `fields` should return only the fields asked for")
+  void getUserWithSparseFieldset() throws Exception {
+    UserDTO registeredUser = registerUser(validUserDTO);
+    String id = String.valueOf(registeredUser.getId());
+
+    mockMvc
+        .perform(
+            get(userUrl + "/" + id)
+                .param("fields", "id,username")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(id))
+        .andExpect(jsonPath("$.username").value(validUsername))
+        .andExpect(jsonPath("$.email").doesNotExist())
+        .andExpect(jsonPath("$.roles").doesNotExist())
+        .andExpect(jsonPath("$.musics").doesNotExist());
+  }
+
   @Test
   @DisplayName("GET `/users/{id}` with non existing id should return 404")
   void getUserWithNonExistingId() throws Exception {
@@ -0,0 +1,173 @@
+package com.oryanend.tom_perfeito_api.services.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// The broker on its own, with emitters that record their sends instead of writing a response. A
+// subscriber can be held inside a send to keep it draining while the test publishes around it.
+public class CommentStreamBrokerTest {
+  private static final long WAIT_SECONDS = 5;
+
+  private CommentStreamBroker broker;
+
+  @BeforeEach
+  void setUp() {
+    broker = new CommentStreamBroker();
+    ReflectionTestUtils.setField(broker, "bufferSize", 2);
+    ReflectionTestUtils.setField(broker, "timeout", Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    broker.close();
+  }
+
+  @Test
+  @DisplayName("A subscriber that falls behind should keep only the newest events")
+  void overflowingBufferShouldDropOldestEvents() throws Exception {
+    UUID musicId = UUID.randomUUID();
+    RecordingEmitter emitter = RecordingEmitter.held();
+    broker.subscribe(musicId, emitter);
+
+    // The first event is taken and its send is held, the next three queue behind it
+    broker.publish(musicId, CommentStreamBroker.CREATED, "first");
+    assertTrue(emitter.entered.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    broker.publish(musicId, CommentStreamBroker.CREATED, "second");
+    broker.publish(musicId, CommentStreamBroker.CREATED, "third");
+    broker.publish(musicId, CommentStreamBroker.CREATED, "fourth");
+
+    emitter.release();
+    emitter.awaitSends(3);
+    assertEquals(List.of("first", "third", "fourth"), emitter.data());
+  }
+
+  @Test
+  @DisplayName("Heartbeats should only go to subscribers with nothing pending")
+  void heartbeatShouldOnlyReachIdleSubscribers() throws Exception {
+    UUID busyMusicId = UUID.randomUUID();
+    RecordingEmitter busy = RecordingEmitter.held();
+    broker.subscribe(busyMusicId, busy);
+    RecordingEmitter idle = new RecordingEmitter();
+    broker.subscribe(UUID.randomUUID(), idle);
+
+    broker.publish(busyMusicId, CommentStreamBroker.CREATED, "first");
+    assertTrue(busy.entered.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    broker.heartbeat();
+
+    idle.awaitSends(1);
+    assertEquals(List.of(":heartbeat"), idle.sent);
+
+    // Nothing was queued for the busy one, its next event follows the first directly
+    busy.release();
+    busy.awaitSends(1);
+    broker.publish(busyMusicId, CommentStreamBroker.UPDATED, "second");
+    busy.awaitSends(1);
+    assertEquals(List.of("first", "second"), busy.data());
+  }
+
+  @Test
+  @DisplayName("A failed send should unsubscribe the subscriber and complete its emitter")
+  void failedSendShouldUnsubscribe() throws Exception {
+    UUID musicId = UUID.randomUUID();
+    RecordingEmitter emitter = RecordingEmitter.failing();
+    broker.subscribe(musicId, emitter);
+
+    broker.publish(musicId, CommentStreamBroker.CREATED, "first");
+    assertTrue(emitter.completed.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    assertInstanceOf(IOException.class, emitter.error);
+
+    Map<?, ?> subscribers = (Map<?, ?>) ReflectionTestUtils.getField(broker, "subscribers");
+    assertFalse(subscribers.containsKey(musicId));
+  }
+
+  // Records each send as the text of its event, ":heartbeat" for a heartbeat
+  private static class RecordingEmitter extends SseEmitter {
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final Semaphore sends = new Semaphore(0);
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final CountDownLatch gate;
+    private final boolean failing;
+    private volatile Throwable error;
+
+    RecordingEmitter() {
+      this(0, false);
+    }
+
+    private RecordingEmitter(int gate, boolean failing) {
+      this.gate = new CountDownLatch(gate);
+      this.failing = failing;
+    }
+
+    static RecordingEmitter held() {
+      return new RecordingEmitter(1, false);
+    }
+
+    static RecordingEmitter failing() {
+      return new RecordingEmitter(0, true);
+    }
+
+    void release() {
+      gate.countDown();
+    }
+
+    void awaitSends(int count) throws InterruptedException {
+      assertTrue(sends.tryAcquire(count, WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    // The payloads of the named events, in the order sent
+    List<String> data() {
+      return sent.stream()
+          .filter(text -> text.contains("data:"))
+          .map(text -> text.substring(text.indexOf("data:") + "data:".length()))
+          .toList();
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      entered.countDown();
+      try {
+        if (!gate.await(WAIT_SECONDS, TimeUnit.SECONDS)) {
+          throw new IOException("Send was never released");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      if (failing) {
+        throw new IOException("Client went away");
+      }
+      sent.add(
+          builder.build().stream()
+              .map(part -> part.getData().toString())
+              .collect(Collectors.joining())
+              .strip());
+      sends.release();
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+      error = ex;
+      completed.countDown();
+    }
+  }
+}